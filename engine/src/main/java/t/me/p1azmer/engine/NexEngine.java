@@ -133,6 +133,12 @@ public class NexEngine extends NexPlugin<NexEngine> {
         if (nbt == null) return false;
 
         ItemStack decompressed = ItemNbt.decompress(nbt);
-        return decompressed != null && decompressed.isSimilar(testItem);
+        if (decompressed == null || !decompressed.isSimilar(testItem)) return false;
+
+        byte[] bytes = ItemNbt.encode(testItem);
+        if (bytes == null) return false;
+
+        ItemStack decoded = ItemNbt.decode(bytes);
+        return decoded != null && decoded.isSimilar(testItem);
     }
 }
\ No newline at end of file
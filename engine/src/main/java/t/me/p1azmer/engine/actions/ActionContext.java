@@ -0,0 +1,144 @@
+package t.me.p1azmer.engine.actions;
+
+import org.bukkit.entity.Entity;
+import org.jetbrains.annotations.NotNull;
+import t.me.p1azmer.engine.utils.collections.ArraySet;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Target groups of a single {@link ActionPlan} execution.
+ * Groups are addressed by the ids interned by the plan, and contexts are pooled per thread,
+ * so their sets are reused instead of being allocated for every execution.
+ * <br>
+ * Sets of the context must not be used after the execution is finished.
+ */
+public final class ActionContext {
+
+    private static final int MAX_POOL_SIZE = 8;
+
+    private static final ThreadLocal<ArrayDeque<ActionContext>> POOL = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final ArraySet<Entity> selected;
+    private final ArraySet<Entity> targets;
+
+    private ArraySet<Entity>[] groups;
+    private boolean[]          present;
+
+    @SuppressWarnings("unchecked")
+    private ActionContext(int groupCount) {
+        this.selected = new ArraySet<>();
+        this.targets = new ArraySet<>();
+        this.groups = new ArraySet[Math.max(1, groupCount)];
+        this.present = new boolean[this.groups.length];
+    }
+
+    @NotNull
+    static ActionContext acquire(@NotNull ActionPlan plan) {
+        ActionContext context = POOL.get().poll();
+        if (context == null) {
+            context = new ActionContext(plan.getGroupCount());
+        }
+        return context;
+    }
+
+    void release() {
+        for (int id = 0; id < this.groups.length; id++) {
+            if (!this.present[id]) continue;
+
+            this.groups[id].clear();
+            this.present[id] = false;
+        }
+        this.selected.clear();
+        this.targets.clear();
+
+        ArrayDeque<ActionContext> pool = POOL.get();
+        if (pool.size() < MAX_POOL_SIZE) {
+            pool.push(this);
+        }
+    }
+
+    /**
+     * Returns group of the specified id, marking it as present.
+     */
+    @NotNull
+    public Set<Entity> getGroup(int id) {
+        if (id >= this.groups.length) {
+            int length = Math.max(id + 1, this.groups.length * 2);
+            this.groups = Arrays.copyOf(this.groups, length);
+            this.present = Arrays.copyOf(this.present, length);
+        }
+
+        ArraySet<Entity> group = this.groups[id];
+        if (group == null) {
+            group = this.groups[id] = new ArraySet<>();
+        }
+        this.present[id] = true;
+        return group;
+    }
+
+    /**
+     * @return True if group was filled by a target selector or passed with the external targets.
+     */
+    public boolean hasGroup(int id) {
+        return id >= 0 && id < this.present.length && this.present[id];
+    }
+
+    /**
+     * @return True if there are no present groups.
+     */
+    public boolean isEmpty() {
+        for (boolean present : this.present) {
+            if (present) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Adds entities of the specified groups to the set.
+     *
+     * @return False if some of the groups are not present.
+     */
+    public boolean collect(@NotNull int[] ids, @NotNull Set<Entity> into) {
+        boolean valid = true;
+        for (int id : ids) {
+            if (!this.hasGroup(id)) {
+                valid = false;
+                continue;
+            }
+            into.addAll(this.groups[id]);
+        }
+        return valid;
+    }
+
+    /**
+     * Removes entities that are not in the set from the specified groups.
+     */
+    public void retain(@NotNull int[] ids, @NotNull Set<Entity> targets) {
+        for (int id : ids) {
+            if (!this.hasGroup(id)) continue;
+
+            this.groups[id].retainAll(targets);
+        }
+    }
+
+    /**
+     * @return Empty reusable set for the target selector results.
+     */
+    @NotNull
+    Set<Entity> getSelected() {
+        this.selected.clear();
+        return this.selected;
+    }
+
+    /**
+     * @return Empty reusable set for the targets of a condition or action.
+     */
+    @NotNull
+    public Set<Entity> getTargets() {
+        this.targets.clear();
+        return this.targets;
+    }
+}
@@ -9,7 +9,6 @@ import t.me.p1azmer.engine.NexPlugin;
 import t.me.p1azmer.engine.actions.actions.AbstractActionExecutor;
 import t.me.p1azmer.engine.actions.conditions.IConditionValidator;
 import t.me.p1azmer.engine.actions.params.IParamResult;
-import t.me.p1azmer.engine.actions.params.IParamType;
 import t.me.p1azmer.engine.actions.targets.ITargetSelector;
 import t.me.p1azmer.engine.api.config.JYML;
 import t.me.p1azmer.engine.utils.Constants;
@@ -113,6 +112,7 @@ public class ActionManipulator {
 
             ActionSection engine = new ActionSection(
                     id, targetSelectors, conditionList, conditionActionOnFail, actionExecutors);
+            engine.compile(this.plugin);
             this.actions.put(id.toLowerCase(), engine);
         }
     }
@@ -194,6 +194,7 @@ public class ActionManipulator {
 
             ActionSection engine = new ActionSection(
                     id, targetSelectors, conditionList, conditionActionOnFail, actionExecutors);
+            engine.compile(this.plugin);
             this.actions.put(id.toLowerCase(), engine);
         }
     }
@@ -206,6 +207,7 @@ public class ActionManipulator {
             copyEngine.getActionExecutors().replaceAll(func);
             copyEngine.getConditions().replaceAll(func);
             copyEngine.getTargetSelectors().replaceAll(func);
+            copyEngine.invalidatePlan();
         }
 
         return manipulatorCopy;
@@ -238,79 +240,62 @@ public class ActionManipulator {
         ActionSection ae = this.actions.get(id.toLowerCase());
         if (ae == null) return;
 
-        Map<String, Set<Entity>> targetMap = new HashMap<>();
-        targetMap2.forEach((fromKey, fromVal) -> {
-            targetMap.merge(fromKey, fromVal, (old, now) -> {
-                Set<Entity> set = new HashSet<>(old);
-                set.addAll(now);
-                return set;
-            });
-        });
-
         Player p = null;
         if (EngineUtils.hasPlaceholderAPI() && exec instanceof Player) {
             p = (Player) exec;
         }
 
-        // Precache target selectors for actions
-        for (String selector : ae.getTargetSelectors()) {
-            if (p != null) selector = PlaceholderAPI.setPlaceholders(p, selector);
-
-            String selectorKey = selector.split(" ")[0].replace("[", "").replace("]", "");
-            ITargetSelector targetSelector = plugin.getActionManager().getTargetSelector(selectorKey);
-            if (targetSelector == null) {
-                plugin.error("Invalid target selector '" + selectorKey + "' in '" + selector + "' !");
-                continue;
-            }
-            IParamResult result = targetSelector.getParamResult(selector);
-            String targetId = result.getParamValue(IParamType.NAME).getString(Constants.DEFAULT);
-            Set<Entity> targets = new HashSet<>();
-
-            targetSelector.select(exec, targets, selector);
-
-            // We use merge instead of single set to prevent targets from
-            // different selectors being removed due to different params.
-            targetMap.merge(targetId, targets, (old, now) -> {
-                Set<Entity> set = new HashSet<>(old);
-                set.addAll(now);
-                return set;
-            });
-        }
+        ActionPlan plan = ae.getPlan(this.plugin);
+        ActionContext context = ActionContext.acquire(plan);
+        try {
+            targetMap2.forEach((fromKey, fromVal) -> context.getGroup(plan.getGroupId(fromKey)).addAll(fromVal));
+
+            // Precache target selectors for actions
+            for (ActionPlan.Line<ITargetSelector> line : plan.getTargetSelectors()) {
+                ITargetSelector targetSelector = line.getHandler(p);
+                if (targetSelector == null) {
+                    plugin.error("Invalid target selector '" + ActionPlan.parseKey(line.getRaw()) + "' in '" + line.getRaw() + "' !");
+                    continue;
+                }
+                IParamResult result = line.getResult(targetSelector, p);
+                Set<Entity> targets = context.getSelected();
 
+                targetSelector.select(exec, targets, result);
 
-        // Check conditions
-        for (String condition : ae.getConditions()) {
-            if (p != null) {
-                condition = PlaceholderAPI.setPlaceholders(p, condition);
+                // Selectors are validated separately to prevent targets from
+                // different selectors being removed due to different params.
+                context.getGroup(line.getGroupId(result)).addAll(targets);
             }
 
-            String key = condition.split(" ")[0].replace("[", "").replace("]", "");
-            IConditionValidator validator = plugin.getActionManager().getConditionValidator(key);
-            if (validator == null) {
-                plugin.error("Invalid condition validator '" + key + "' in '" + condition + "' !");
-                continue;
-            }
+            // Check conditions
+            for (ActionPlan.Line<IConditionValidator> line : plan.getConditions()) {
+                IConditionValidator validator = line.getHandler(p);
+                if (validator == null) {
+                    plugin.error("Invalid condition validator '" + ActionPlan.parseKey(line.getRaw()) + "' in '" + line.getRaw() + "' !");
+                    continue;
+                }
 
-            if (!validator.process(exec, targetMap, condition, this)) {
-                this.process(exec, ae.getConditionFailActions());
-                return;
+                IParamResult result = line.getResult(validator, p);
+                if (!validator.process(exec, context, line.getTargetIds(result), line.getRaw(), result)) {
+                    this.process(exec, ae.getConditionFailActions());
+                    return;
+                }
             }
-        }
 
-        // Run actions
-        for (String action : ae.getActionExecutors()) {
-            if (p != null) {
-                action = PlaceholderAPI.setPlaceholders(p, action);
-            }
+            // Run actions
+            for (ActionPlan.Line<AbstractActionExecutor> line : plan.getActionExecutors()) {
+                AbstractActionExecutor executor = line.getHandler(p);
+                if (executor == null) {
+                    plugin.error("Invalid action executor '" + ActionPlan.parseKey(line.getRaw()) + "' in '" + line.getRaw() + "' !");
+                    continue;
+                }
 
-            String key = action.split(" ")[0].replace("[", "").replace("]", "");
-            AbstractActionExecutor executor = plugin.getActionManager().getActionExecutor(key);
-            if (executor == null) {
-                plugin.error("Invalid action executor '" + key + "' in '" + action + "' !");
-                continue;
+                IParamResult result = line.getResult(executor, p);
+                executor.process(exec, context, line.getTargetIds(result), line.getRaw(), result, this);
             }
-
-            executor.process(exec, targetMap, action, this);
+        }
+        finally {
+            context.release();
         }
     }
 
@@ -341,18 +326,18 @@ public class ActionManipulator {
 
         // Check conditions
         for (String condition : condis) {
-            if (p != null) {
-                condition = PlaceholderAPI.setPlaceholders(p, condition);
+            String key = ActionPlan.parseKey(condition);
+            if (p != null && Parametized.hasPlaceholders(key)) {
+                key = ActionPlan.parseKey(PlaceholderAPI.setPlaceholders(p, key));
             }
 
-            String key = condition.split(" ")[0].replace("[", "").replace("]", "");
             IConditionValidator validator = plugin.getActionManager().getConditionValidator(key);
             if (validator == null) {
                 plugin.error("Invalid condition validator '" + key + "' in '" + condition + "' !");
                 continue;
             }
 
-            if (!validator.process(exec, targetMap, condition)) {
+            if (!validator.process(exec, targetMap, condition, validator.getParamResult(condition, p), null)) {
                 return false;
             }
         }
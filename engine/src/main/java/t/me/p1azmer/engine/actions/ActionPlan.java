@@ -0,0 +1,207 @@
+package t.me.p1azmer.engine.actions;
+
+import me.clip.placeholderapi.PlaceholderAPI;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import t.me.p1azmer.engine.NexPlugin;
+import t.me.p1azmer.engine.actions.actions.AbstractActionExecutor;
+import t.me.p1azmer.engine.actions.conditions.IConditionValidator;
+import t.me.p1azmer.engine.actions.params.IParamResult;
+import t.me.p1azmer.engine.actions.params.IParamType;
+import t.me.p1azmer.engine.actions.targets.ITargetSelector;
+import t.me.p1azmer.engine.utils.Constants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Compiled form of the {@link ActionSection}.
+ * Target selectors, condition validators and action executors are resolved once with their params parsed,
+ * so only the lines that contain placeholders have to be parsed again on execution.
+ * <br>
+ * Target group names are interned into small integer ids to address the groups of {@link ActionContext}.
+ */
+public final class ActionPlan {
+
+    /** Id of the {@link Constants#DEFAULT} target group, it's always interned first. */
+    public static final int DEFAULT_GROUP = 0;
+
+    private static final int[] NO_IDS = new int[0];
+
+    private final Map<String, Integer> groupIds;
+
+    private final List<Line<ITargetSelector>>        targetSelectors;
+    private final List<Line<IConditionValidator>>    conditions;
+    private final List<Line<AbstractActionExecutor>> actionExecutors;
+
+    private ActionPlan(@NotNull NexPlugin<?> plugin, @NotNull ActionSection section) {
+        this.groupIds = new ConcurrentHashMap<>();
+        this.getGroupId(Constants.DEFAULT);
+
+        // Handlers can not be resolved before the action manager is loaded, so they will be looked up on execution.
+        boolean resolve = plugin.getActionManager() != null;
+        this.targetSelectors = this.compile(section.getTargetSelectors(), resolve, key -> plugin.getActionManager().getTargetSelector(key));
+        this.conditions = this.compile(section.getConditions(), resolve, key -> plugin.getActionManager().getConditionValidator(key));
+        this.actionExecutors = this.compile(section.getActionExecutors(), resolve, key -> plugin.getActionManager().getActionExecutor(key));
+    }
+
+    @NotNull
+    public static ActionPlan compile(@NotNull NexPlugin<?> plugin, @NotNull ActionSection section) {
+        return new ActionPlan(plugin, section);
+    }
+
+    @NotNull
+    private <T extends Parametized> List<Line<T>> compile(@NotNull List<String> lines, boolean resolve,
+                                                          @NotNull Function<String, T> lookup) {
+        List<Line<T>> compiled = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            compiled.add(new Line<>(this, line, resolve, lookup));
+        }
+        return Collections.unmodifiableList(compiled);
+    }
+
+    @NotNull
+    public static String parseKey(@NotNull String line) {
+        return line.split(" ")[0].replace("[", "").replace("]", "");
+    }
+
+    /**
+     * Returns id of the target group, interning it when necessary. Group names are case-insensitive.
+     */
+    public int getGroupId(@NotNull String name) {
+        Integer id = this.groupIds.get(name);
+        if (id != null) return id;
+
+        return this.intern(name.toLowerCase());
+    }
+
+    private synchronized int intern(@NotNull String name) {
+        Integer id = this.groupIds.get(name);
+        if (id == null) {
+            id = this.groupIds.size();
+            this.groupIds.put(name, id);
+        }
+        return id;
+    }
+
+    public int getGroupCount() {
+        return this.groupIds.size();
+    }
+
+    @NotNull
+    private int[] parseGroupIds(@NotNull IParamResult result) {
+        if (!result.hasParam(IParamType.TARGET)) return NO_IDS;
+
+        String[] names = result.getParamValue(IParamType.TARGET).getString("").split(",");
+        int[] ids = new int[names.length];
+        int count = 0;
+        for (String name : names) {
+            if (name.isEmpty()) continue;
+            ids[count++] = this.getGroupId(name);
+        }
+        return count == ids.length ? ids : Arrays.copyOf(ids, count);
+    }
+
+    @NotNull
+    public List<Line<ITargetSelector>> getTargetSelectors() {
+        return this.targetSelectors;
+    }
+
+    @NotNull
+    public List<Line<IConditionValidator>> getConditions() {
+        return this.conditions;
+    }
+
+    @NotNull
+    public List<Line<AbstractActionExecutor>> getActionExecutors() {
+        return this.actionExecutors;
+    }
+
+    public static final class Line<T extends Parametized> {
+
+        private final ActionPlan          plan;
+        private final String              raw;
+        private final boolean             dynamic;
+        private final boolean             dynamicKey;
+        private final Function<String, T> lookup;
+        private final T                   handler;
+        private final IParamResult        result;
+        private final int                 groupId;
+        private final int[]               targetIds;
+
+        private Line(@NotNull ActionPlan plan, @NotNull String raw, boolean resolve, @NotNull Function<String, T> lookup) {
+            this.plan = plan;
+            this.raw = raw;
+            this.lookup = lookup;
+            this.dynamic = Parametized.hasPlaceholders(raw);
+
+            String key = parseKey(raw);
+            this.dynamicKey = this.dynamic && Parametized.hasPlaceholders(key);
+
+            // Handlers that are not registered yet are looked up on execution.
+            this.handler = resolve && !this.dynamicKey ? lookup.apply(key) : null;
+            this.result = this.handler == null ? null : this.handler.getParamResult(raw);
+            this.groupId = this.result == null ? -1 : this.plan.getGroupId(this.result.getParamValue(IParamType.NAME).getString(Constants.DEFAULT));
+            this.targetIds = this.result == null ? NO_IDS : this.plan.parseGroupIds(this.result);
+        }
+
+        @NotNull
+        public String getRaw() {
+            return this.raw;
+        }
+
+        public boolean isDynamic() {
+            return this.dynamic;
+        }
+
+        @Nullable
+        public T getHandler(@Nullable Player player) {
+            if (this.handler != null && !this.dynamicKey) return this.handler;
+
+            String key = parseKey(this.raw);
+            if (this.dynamicKey && player != null) {
+                key = parseKey(PlaceholderAPI.setPlaceholders(player, key));
+            }
+            return this.lookup.apply(key);
+        }
+
+        /**
+         * @param handler Handler returned by {@link #getHandler(Player)}.
+         * @param player  Player to set placeholders for, or null if placeholders should not be set.
+         * @return Parsed params of the line.
+         */
+        @NotNull
+        public IParamResult getResult(@NotNull T handler, @Nullable Player player) {
+            if (this.result != null && handler == this.handler && (!this.dynamic || player == null)) return this.result;
+
+            return handler.getParamResult(this.raw, player);
+        }
+
+        /**
+         * @param result Result returned by {@link #getResult(Parametized, Player)}.
+         * @return Id of the target group named by the selector line.
+         */
+        public int getGroupId(@NotNull IParamResult result) {
+            if (result == this.result) return this.groupId;
+
+            return this.plan.getGroupId(result.getParamValue(IParamType.NAME).getString(Constants.DEFAULT));
+        }
+
+        /**
+         * @param result Result returned by {@link #getResult(Parametized, Player)}.
+         * @return Ids of the target groups used by the condition or action line.
+         */
+        @NotNull
+        public int[] getTargetIds(@NotNull IParamResult result) {
+            if (result == this.result) return this.targetIds;
+
+            return this.plan.parseGroupIds(result);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package t.me.p1azmer.engine.actions;
 
 import org.jetbrains.annotations.NotNull;
+import t.me.p1azmer.engine.NexPlugin;
 import t.me.p1azmer.engine.api.config.JYML;
 
 import java.util.ArrayList;
@@ -15,6 +16,8 @@ public class ActionSection {
 
     private final String id;
 
+    private volatile ActionPlan plan;
+
     public ActionSection(
             @NotNull String id,
             @NotNull List<String> targetSelectors,
@@ -46,6 +49,31 @@ public class ActionSection {
         cfg.saveChanges();
     }
 
+    /**
+     * Returns compiled plan of this section. Plan is compiled once and reused until the section is changed
+     * by one of the setters or by {@link #invalidatePlan()}.
+     */
+    @NotNull
+    public ActionPlan getPlan(@NotNull NexPlugin<?> plugin) {
+        ActionPlan plan = this.plan;
+        if (plan == null) {
+            plan = this.compile(plugin);
+        }
+        return plan;
+    }
+
+    @NotNull
+    public ActionPlan compile(@NotNull NexPlugin<?> plugin) {
+        return this.plan = ActionPlan.compile(plugin, this);
+    }
+
+    /**
+     * Must be called after direct modifications of the section lists.
+     */
+    public void invalidatePlan() {
+        this.plan = null;
+    }
+
     @NotNull
     public String getId() {
         return id;
@@ -73,10 +101,12 @@ public class ActionSection {
 
     public void setActionExecutors(@NotNull List<String> actionExecutors) {
         this.actionExecutors = actionExecutors;
+        this.invalidatePlan();
     }
 
     public void setConditions(@NotNull List<String> conditionsList) {
         this.conditionList = conditionsList;
+        this.invalidatePlan();
     }
 
     public void setConditionActionOnFail(String conditionActionOnFail) {
@@ -85,9 +115,11 @@ public class ActionSection {
 
     public void setConditionList(List<String> conditionList) {
         this.conditionList = conditionList;
+        this.invalidatePlan();
     }
 
     public void setTargetSelectors(List<String> targetSelectors) {
         this.targetSelectors = targetSelectors;
+        this.invalidatePlan();
     }
 }
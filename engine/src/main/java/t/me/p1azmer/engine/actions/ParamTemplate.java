@@ -0,0 +1,59 @@
+package t.me.p1azmer.engine.actions;
+
+import org.jetbrains.annotations.NotNull;
+import t.me.p1azmer.engine.actions.params.IParam;
+import t.me.p1azmer.engine.actions.params.IParamResult;
+import t.me.p1azmer.engine.actions.params.IParamValue;
+
+import java.util.Map;
+
+/**
+ * Parsed action line before placeholders are set.
+ * Param values that contain placeholders are kept as raw slots to be parsed again for each player,
+ * while the rest of the values are parsed once.
+ */
+final class ParamTemplate {
+
+    private final Map<String, IParamValue> values;
+    private final Map<IParam, String>      slots;
+    private final IParamResult             result;
+    private final boolean                  dynamic;
+    private final boolean                  slotted;
+
+    ParamTemplate(@NotNull Map<String, IParamValue> values, @NotNull Map<IParam, String> slots, boolean dynamic, boolean slotted) {
+        this.values = values;
+        this.slots = slots;
+        this.result = new IParamResult(values);
+        this.dynamic = dynamic;
+        this.slotted = slotted;
+    }
+
+    @NotNull
+    Map<String, IParamValue> getValues() {
+        return this.values;
+    }
+
+    @NotNull
+    Map<IParam, String> getSlots() {
+        return this.slots;
+    }
+
+    @NotNull
+    IParamResult getResult() {
+        return this.result;
+    }
+
+    /**
+     * @return True if line contains placeholders.
+     */
+    boolean isDynamic() {
+        return this.dynamic;
+    }
+
+    /**
+     * @return True if all the placeholders are inside of param values, so only slots have to be parsed again.
+     */
+    boolean isSlotted() {
+        return this.slotted;
+    }
+}
@@ -1,16 +1,27 @@
 package t.me.p1azmer.engine.actions;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import me.clip.placeholderapi.PlaceholderAPI;
+import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import t.me.p1azmer.engine.NexPlugin;
 import t.me.p1azmer.engine.actions.params.IParam;
 import t.me.p1azmer.engine.actions.params.IParamResult;
 import t.me.p1azmer.engine.actions.params.IParamValue;
+import t.me.p1azmer.engine.actions.params.ParamLexer;
+import t.me.p1azmer.engine.config.EngineConfig;
+import t.me.p1azmer.engine.utils.EngineUtils;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
-import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public abstract class Parametized {
 
@@ -18,12 +29,21 @@ public abstract class Parametized {
     protected final Set<IParam> params;
     protected final String key;
 
+    private final Map<String, IParam> paramsByFlag;
+
     protected static final String FLAG_NO_DELAY = "@NODELAY@";
-    private static final Map<String, IParamResult> RESULT_CACHE = new HashMap<>();
+    private static final Pattern PLACEHOLDER = Pattern.compile("[%]([^%]+)[%]");
+
+    // Keys are the lines before placeholders are set, so players do not produce their own entries.
+    private static final Cache<String, ParamTemplate> RESULT_CACHE = CacheBuilder.newBuilder()
+        .maximumSize(Math.max(16, EngineConfig.ACTIONS_PARAM_CACHE_SIZE.get()))
+        .recordStats()
+        .build();
 
     public Parametized(@NotNull NexPlugin<?> plugin, @NotNull String key) {
         this.plugin = plugin;
         this.params = new HashSet<>();
+        this.paramsByFlag = new HashMap<>();
         this.key = key.toUpperCase();
         this.registerParams();
     }
@@ -42,6 +62,7 @@ public abstract class Parametized {
             return;
         }
         this.params.add(param);
+        this.paramsByFlag.put(param.getFlag(), param);
     }
 
     @NotNull
@@ -51,36 +72,101 @@ public abstract class Parametized {
 
     @NotNull
     protected final IParamResult getParamResult(@NotNull String fullStr) {
+        return this.getTemplate(fullStr).getResult();
+    }
+
+    /**
+     * Parses params of the line with placeholders set for the specified player.
+     * Only param values that contain placeholders are parsed again, the rest are taken from the cache.
+     *
+     * @param fullStr Line before placeholders are set.
+     * @param player  Player to set placeholders for.
+     * @return Parsed params.
+     */
+    @NotNull
+    protected final IParamResult getParamResult(@NotNull String fullStr, @Nullable Player player) {
+        ParamTemplate template = this.getTemplate(fullStr);
+        if (player == null || !template.isDynamic() || !EngineUtils.hasPlaceholderAPI()) {
+            return template.getResult();
+        }
+
+        // Placeholders outside of the param values may change the line structure.
+        if (!template.isSlotted()) {
+            return this.parse(PlaceholderAPI.setPlaceholders(player, fullStr)).getResult();
+        }
+
+        Map<String, IParamValue> values = new HashMap<>(template.getValues());
+        template.getSlots().forEach((param, raw) -> {
+            values.put(param.getKey(), param.getParser().parseValue(PlaceholderAPI.setPlaceholders(player, raw)));
+        });
+        return new IParamResult(values);
+    }
+
+    @NotNull
+    private ParamTemplate getTemplate(@NotNull String fullStr) {
         String cache = fullStr.replace(FLAG_NO_DELAY, "");
-        if (RESULT_CACHE.containsKey(cache)) {
-            return RESULT_CACHE.get(cache);
+        ParamTemplate template = RESULT_CACHE.getIfPresent(cache);
+        if (template == null) {
+            template = this.parse(cache);
+            RESULT_CACHE.put(cache, template);
         }
+        return template;
+    }
 
+    @NotNull
+    private ParamTemplate parse(@NotNull String fullStr) {
         Map<String, IParamValue> values = new HashMap<>();
+        Map<IParam, String> slots = new LinkedHashMap<>();
+
+        String rest = fullStr.substring(fullStr.indexOf(' ') + 1);
+        for (Map.Entry<IParam, String> entry : this.extractValues(fullStr).entrySet()) {
+            IParam param = entry.getKey();
+            String ext = entry.getValue();
+
+            // Parse value from a string
+            values.put(param.getKey(), param.getParser().parseValue(ext)); // Put in result map
+            if (hasPlaceholders(ext)) {
+                slots.put(param, ext);
+                rest = rest.replace(ext, "");
+            }
+        }
 
-        for (IParam param : this.getParams()) {
-            String flag = param.getFlag(); // Raw flag, without '~' prefix
-            if (!fullStr.contains(flag)) continue;
+        boolean dynamic = hasPlaceholders(fullStr);
+        boolean slotted = !hasPlaceholders(rest);
+        return new ParamTemplate(values, slots.isEmpty() ? Collections.emptyMap() : slots, dynamic, slotted);
+    }
 
-            // Search for flag of this parameter
-            Matcher m = param.getPattern().matcher(fullStr); // TODO add Fixed ICharSeq
+    @NotNull
+    private Map<IParam, String> extractValues(@NotNull String fullStr) {
+        Map<IParam, String> values = new LinkedHashMap<>();
 
-            // Get the flag value
-            if (m.find()) {
-                String ext = m.group(4).trim(); // Extract only value from all flag string
+        ParamLexer.tokenize(fullStr, (flag, value) -> {
+            IParam param = this.paramsByFlag.get(flag);
+            if (param == null) return;
 
-                // Parse value from a string
-                IParamValue v = param.getParser().parseValue(ext);
-                values.put(param.getKey(), v); // Put in result map
-            }
-        }
+            // The first flag occurrence wins as it was with the regex search.
+            values.putIfAbsent(param, value);
+        });
+        return values;
+    }
 
-        IParamResult result = new IParamResult(values);
-        RESULT_CACHE.put(cache, result);
-        return result;
+    public static boolean hasPlaceholders(@NotNull String line) {
+        return line.indexOf('%') >= 0 && PLACEHOLDER.matcher(line).find();
     }
 
     public static void clearCache() {
-        RESULT_CACHE.clear();
+        RESULT_CACHE.invalidateAll();
+    }
+
+    public static long getCacheSize() {
+        return RESULT_CACHE.size();
+    }
+
+    /**
+     * @return Hit, miss and eviction counters of the param cache.
+     */
+    @NotNull
+    public static CacheStats getCacheStats() {
+        return RESULT_CACHE.stats();
     }
 }
@@ -3,6 +3,7 @@ package t.me.p1azmer.engine.actions.actions;
 import org.bukkit.entity.Entity;
 import org.jetbrains.annotations.NotNull;
 import t.me.p1azmer.engine.NexPlugin;
+import t.me.p1azmer.engine.actions.ActionContext;
 import t.me.p1azmer.engine.actions.ActionManipulator;
 import t.me.p1azmer.engine.actions.Parametized;
 import t.me.p1azmer.engine.actions.params.IParamResult;
@@ -22,6 +23,9 @@ public abstract class AbstractActionExecutor extends Parametized {
 
     public abstract boolean mustHaveTarget();
 
+    /**
+     * Executes the action. Set of the targets may be reused after this method returns, so it should not be stored.
+     */
     protected abstract void execute(
             @NotNull Entity exe, @NotNull Set<Entity> targets, @NotNull IParamResult result);
 
@@ -33,18 +37,39 @@ public abstract class AbstractActionExecutor extends Parametized {
 
         IParamResult result = this.getParamResult(fullStr);
 
-        if (fullStr.contains(FLAG_NO_DELAY)) {
+        boolean noDelay = fullStr.contains(FLAG_NO_DELAY);
+        if (noDelay) {
             fullStr = fullStr.replace(FLAG_NO_DELAY, "");
-        } else if (result.hasParam(IParamType.DELAY)) {
+        }
+        this.process(exe, targetMap, fullStr, result, manipulator, !noDelay);
+    }
+
+    public final void process(
+            @NotNull Entity exe,
+            @NotNull Map<String, Set<Entity>> targetMap,
+            @NotNull String fullStr,
+            @NotNull IParamResult result,
+            @NotNull ActionManipulator manipulator) {
+        this.process(exe, targetMap, fullStr, result, manipulator, true);
+    }
+
+    private void process(
+            @NotNull Entity exe,
+            @NotNull Map<String, Set<Entity>> targetMap,
+            @NotNull String fullStr,
+            @NotNull IParamResult result,
+            @NotNull ActionManipulator manipulator,
+            boolean allowDelay) {
+
+        if (allowDelay && result.hasParam(IParamType.DELAY)) {
             int delay = result.getParamValue(IParamType.DELAY).getInt(0);
-            final String fullStr2 = fullStr;
 
             if (delay > 0) {
                 if (NexPlugin.isFolia) {
-                    Folia.executeLater(() -> this.process(exe, targetMap, fullStr2 + FLAG_NO_DELAY, manipulator), delay);
+                    Folia.executeLater(() -> this.process(exe, targetMap, fullStr, result, manipulator, false), delay);
                     return;
                 }
-                plugin.getServer().getScheduler().runTaskLater(plugin, () -> this.process(exe, targetMap, fullStr2 + FLAG_NO_DELAY, manipulator), delay);
+                plugin.getServer().getScheduler().runTaskLater(plugin, () -> this.process(exe, targetMap, fullStr, result, manipulator, false), delay);
                 return;
             }
         }
@@ -70,6 +95,58 @@ public abstract class AbstractActionExecutor extends Parametized {
             return;
         }
 
+        this.run(exe, targets, result, manipulator);
+    }
+
+    /**
+     * Processes the action for target groups of the compiled action plan.
+     * Targets are resolved before the delay, so delayed actions do not hold the pooled context.
+     *
+     * @param context   Target groups of the current execution.
+     * @param targetIds Ids of the target groups used by the action.
+     */
+    public final void process(
+            @NotNull Entity exe,
+            @NotNull ActionContext context,
+            @NotNull int[] targetIds,
+            @NotNull String fullStr,
+            @NotNull IParamResult result,
+            @NotNull ActionManipulator manipulator) {
+
+        if (this.mustHaveTarget() && !result.hasParam(IParamType.TARGET)) {
+            plugin.warn("No Target specified for action: " + fullStr);
+            return;
+        }
+
+        Set<Entity> targets = context.getTargets();
+        if (!context.collect(targetIds, targets)) {
+            plugin.warn("Invalid Target specified for action: " + fullStr);
+        }
+
+        if (this.mustHaveTarget() && targets.isEmpty()) {
+            return;
+        }
+
+        int delay = result.hasParam(IParamType.DELAY) ? result.getParamValue(IParamType.DELAY).getInt(0) : 0;
+        if (delay > 0) {
+            Set<Entity> snapshot = new HashSet<>(targets);
+            if (NexPlugin.isFolia) {
+                Folia.executeLater(() -> this.run(exe, snapshot, result, manipulator), delay);
+                return;
+            }
+            plugin.getServer().getScheduler().runTaskLater(plugin, () -> this.run(exe, snapshot, result, manipulator), delay);
+            return;
+        }
+
+        this.run(exe, targets, result, manipulator);
+    }
+
+    private void run(
+            @NotNull Entity exe,
+            @NotNull Set<Entity> targets,
+            @NotNull IParamResult result,
+            @NotNull ActionManipulator manipulator) {
+
         if (this.getKey().equalsIgnoreCase(ActionType.GOTO)) {
             String id = result.getParamValue(IParamType.NAME).getString(null);
             if (id == null) return;
@@ -4,7 +4,9 @@ import org.bukkit.entity.Entity;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import t.me.p1azmer.engine.NexPlugin;
+import t.me.p1azmer.engine.actions.ActionContext;
 import t.me.p1azmer.engine.actions.ActionManipulator;
+import t.me.p1azmer.engine.actions.ActionPlan;
 import t.me.p1azmer.engine.actions.Parametized;
 import t.me.p1azmer.engine.actions.params.IParamResult;
 import t.me.p1azmer.engine.actions.params.IParamType;
@@ -42,8 +44,15 @@ public abstract class IConditionValidator extends Parametized {
             @NotNull Map<String, Set<Entity>> targetMap,
             @NotNull String fullStr,
             @Nullable ActionManipulator manipulator) {
+        return this.process(exe, targetMap, fullStr, this.getParamResult(fullStr), manipulator);
+    }
 
-        IParamResult result = this.getParamResult(fullStr);
+    public final boolean process(
+            @NotNull Entity exe,
+            @NotNull Map<String, Set<Entity>> targetMap,
+            @NotNull String fullStr,
+            @NotNull IParamResult result,
+            @Nullable ActionManipulator manipulator) {
 
         // Check for empty map because it may contain default executor
         // in some cases
@@ -64,12 +73,69 @@ public abstract class IConditionValidator extends Parametized {
             }
         }
 
+        if (!this.test(exe, targetMap.containsKey(Constants.DEFAULT) ? targetMap.get(Constants.DEFAULT) : null, targets, fullStr, result)) {
+            return false;
+        }
+
+        // Remove filtered targets from the original target map
+        // to avoid them being applied on actions.
+        for (String targetId : tsSplit) {
+            targetId = targetId.toLowerCase();
+            if (targetMap.containsKey(targetId)) {
+                targetMap.get(targetId).removeIf(target2 -> !targets.contains(target2));
+            }
+        }
+
+        //targetMap.values().removeIf(Set::isEmpty);
+        return true;
+    }
+
+    /**
+     * Processes the condition for target groups of the compiled action plan.
+     *
+     * @param context   Target groups of the current execution.
+     * @param targetIds Ids of the target groups used by the condition.
+     */
+    public final boolean process(
+            @NotNull Entity exe,
+            @NotNull ActionContext context,
+            @NotNull int[] targetIds,
+            @NotNull String fullStr,
+            @NotNull IParamResult result) {
+
+        if (this.mustHaveTarget() && !result.hasParam(IParamType.TARGET) && context.isEmpty()) {
+            plugin.warn("No Target specified for condition: " + fullStr);
+            return false;
+        }
+
+        Set<Entity> targets = context.getTargets();
+        if (!context.collect(targetIds, targets)) {
+            plugin.warn("Invalid Target specified for condition: " + fullStr);
+        }
+
+        Set<Entity> defaults = context.hasGroup(ActionPlan.DEFAULT_GROUP) ? context.getGroup(ActionPlan.DEFAULT_GROUP) : null;
+        if (!this.test(exe, defaults, targets, fullStr, result)) {
+            return false;
+        }
+
+        // Remove filtered targets from the groups to avoid them being applied on actions.
+        context.retain(targetIds, targets);
+        return true;
+    }
+
+    private boolean test(
+            @NotNull Entity exe,
+            @Nullable Set<Entity> defaults,
+            @NotNull Set<Entity> targets,
+            @NotNull String fullStr,
+            @NotNull IParamResult result) {
+
         // Fine target entities.
         if (targets.isEmpty()) {
             // If no target was provided, but plugin has support for default target,
             // then we add them.
-            if (targetMap.containsKey(Constants.DEFAULT)) {
-                targets.addAll(targetMap.get(Constants.DEFAULT));
+            if (defaults != null) {
+                targets.addAll(defaults);
             }
             // If there is no default target and the condition must have target,
             // then action should be interrupted.
@@ -100,22 +166,14 @@ public abstract class IConditionValidator extends Parametized {
                 return false;
             });
         } else {
-            if (!targets.stream().allMatch(predicate)) {
-                if (msg != null) targets.forEach(target -> target.sendMessage(msg));
-                return false;
-            }
-        }
+            for (Entity target : targets) {
+                if (predicate.test(target)) continue;
 
-        // Remove filtered targets from the original target map
-        // to avoid them being applied on actions.
-        for (String targetId : tsSplit) {
-            targetId = targetId.toLowerCase();
-            if (targetMap.containsKey(targetId)) {
-                targetMap.get(targetId).removeIf(target2 -> !targets.contains(target2));
+                if (msg != null) targets.forEach(target2 -> target2.sendMessage(msg));
+                return false;
             }
         }
 
-        //targetMap.values().removeIf(Set::isEmpty);
         return true;
     }
 }
@@ -0,0 +1,59 @@
+package t.me.p1azmer.engine.actions.params;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Single-pass tokenizer for the '~flag: value;' param syntax.
+ * Replaces matching of a separate regex for every registered param.
+ */
+public final class ParamLexer {
+
+    private ParamLexer() {
+
+    }
+
+    @FunctionalInterface
+    public interface FlagConsumer {
+
+        void accept(@NotNull String flag, @NotNull String value);
+    }
+
+    /**
+     * Scans the line and passes every found flag with its value to the consumer.
+     * Flags are passed in lower case, values are trimmed.
+     * Flags without the ';' terminator are ignored.
+     *
+     * @param line     Line to scan.
+     * @param consumer Consumer for the flags and values.
+     */
+    public static void tokenize(@NotNull String line, @NotNull FlagConsumer consumer) {
+        int length = line.length();
+        int index = line.indexOf('~');
+
+        while (index >= 0) {
+            int flagStart = index;
+            while (flagStart < length && line.charAt(flagStart) == '~') flagStart++;
+
+            int flagEnd = flagStart;
+            while (flagEnd < length && isFlagChar(line.charAt(flagEnd))) flagEnd++;
+
+            if (flagEnd == flagStart || flagEnd >= length || line.charAt(flagEnd) != ':') {
+                index = line.indexOf('~', flagStart);
+                continue;
+            }
+
+            int valueStart = flagEnd;
+            while (valueStart < length && line.charAt(valueStart) == ':') valueStart++;
+
+            int valueEnd = line.indexOf(';', valueStart);
+            if (valueEnd < 0) return;
+
+            consumer.accept(line.substring(flagStart, flagEnd).toLowerCase(), line.substring(valueStart, valueEnd).trim());
+            index = line.indexOf('~', valueEnd + 1);
+        }
+    }
+
+    private static boolean isFlagChar(char c) {
+        return c != ':' && c != ';' && c != '~' && !Character.isWhitespace(c);
+    }
+}
@@ -21,8 +21,10 @@ public abstract class ITargetSelector extends Parametized {
     }
 
     public final void select(@NotNull Entity exe, @NotNull Set<Entity> targets, @NotNull String fullStr) {
-        IParamResult result = this.getParamResult(fullStr);
+        this.select(exe, targets, this.getParamResult(fullStr));
+    }
 
+    public final void select(@NotNull Entity exe, @NotNull Set<Entity> targets, @NotNull IParamResult result) {
         this.validateTarget(exe, targets, result);
         this.autoValidate(exe, targets, result);
     }
@@ -1,9 +1,12 @@
 package t.me.p1azmer.engine.actions.targets.list;
 
+import org.bukkit.FluidCollisionMode;
 import org.bukkit.Location;
-import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.LivingEntity;
+import org.bukkit.util.BoundingBox;
+import org.bukkit.util.RayTraceResult;
 import org.bukkit.util.Vector;
 import org.jetbrains.annotations.NotNull;
 import t.me.p1azmer.engine.NexPlugin;
@@ -12,11 +15,13 @@ import t.me.p1azmer.engine.actions.params.IParamType;
 import t.me.p1azmer.engine.actions.targets.ITargetSelector;
 import t.me.p1azmer.engine.actions.targets.ITargetType;
 
-import java.util.HashSet;
 import java.util.Set;
 
 public class Target_FromSight extends ITargetSelector {
 
+    // Max distance from the sight line to the entity hitbox, matches the old per-block search area.
+    private static final double SIGHT_RADIUS = 1.25;
+
     public Target_FromSight(@NotNull NexPlugin<?> plugin) {
         super(plugin, ITargetType.FROM_SIGHT);
     }
@@ -43,21 +48,51 @@ public class Target_FromSight extends ITargetSelector {
             start = ((LivingEntity) exe).getEyeLocation();
         }
 
-        Vector      increase   = start.getDirection();
-        Set<Entity> disTargets = new HashSet<>();
+        World world = exe.getWorld();
+        Vector direction = start.getDirection();
 
-        for (int counter = 0; counter < dist; counter++) {
-            Location point = start.add(increase);
+        // Sight is limited by the first solid block.
+        RayTraceResult wall = world.rayTraceBlocks(start, direction, dist, FluidCollisionMode.NEVER, true);
+        double length = wall == null ? dist : wall.getHitPosition().distance(start.toVector());
 
-            Material wall = point.getBlock().getType();
-            if (wall != Material.AIR && wall.isSolid()) {
-                break;
-            }
+        double sx = start.getX();
+        double sy = start.getY();
+        double sz = start.getZ();
+        double dx = direction.getX();
+        double dy = direction.getY();
+        double dz = direction.getZ();
 
-            disTargets.addAll(exe.getWorld().getNearbyEntities(point, 1.25, 1.25, 1.25));
-        }
+        // Single query for the area of the whole sight line. It returns entities by their hitboxes,
+        // so large entities are found even when their locations are far from the line.
+        BoundingBox box = BoundingBox.of(start.toVector(), start.toVector().add(direction.clone().multiply(length)))
+            .expand(SIGHT_RADIUS);
+
+        targets.addAll(world.getNearbyEntities(box, entity -> {
+            BoundingBox hitbox = entity.getBoundingBox().expand(SIGHT_RADIUS);
+            return intersects(hitbox, sx, sy, sz, dx, dy, dz, length);
+        })); // Add all targets from this selector
+    }
 
-        targets.addAll(disTargets); // Add all targets from this selector
+    /**
+     * Tells if the sight segment of the specified length crosses the box.
+     */
+    private static boolean intersects(@NotNull BoundingBox box, double sx, double sy, double sz,
+                                      double dx, double dy, double dz, double length) {
+        double[] range = {0D, length};
+        return clip(range, sx, dx, box.getMinX(), box.getMaxX())
+            && clip(range, sy, dy, box.getMinY(), box.getMaxY())
+            && clip(range, sz, dz, box.getMinZ(), box.getMaxZ());
     }
 
+    private static boolean clip(double[] range, double start, double direction, double min, double max) {
+        if (Math.abs(direction) < 1E-9) {
+            return start >= min && start <= max;
+        }
+
+        double t1 = (min - start) / direction;
+        double t2 = (max - start) / direction;
+        range[0] = Math.max(range[0], Math.min(t1, t2));
+        range[1] = Math.min(range[1], Math.max(t1, t2));
+        return range[0] <= range[1];
+    }
 }
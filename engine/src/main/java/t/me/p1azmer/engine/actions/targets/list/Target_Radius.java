@@ -1,6 +1,8 @@
 package t.me.p1azmer.engine.actions.targets.list;
 
+import org.bukkit.Location;
 import org.bukkit.entity.Entity;
+import org.bukkit.util.BoundingBox;
 import org.jetbrains.annotations.NotNull;
 import t.me.p1azmer.engine.NexPlugin;
 import t.me.p1azmer.engine.actions.params.IParamResult;
@@ -8,7 +10,6 @@ import t.me.p1azmer.engine.actions.params.IParamType;
 import t.me.p1azmer.engine.actions.targets.ITargetSelector;
 import t.me.p1azmer.engine.actions.targets.ITargetType;
 
-import java.util.HashSet;
 import java.util.Set;
 
 public class Target_Radius extends ITargetSelector {
@@ -33,9 +34,23 @@ public class Target_Radius extends ITargetSelector {
 
         if (dist <= 0) return;
 
-        Set<Entity> disTargets = new HashSet<>();
-        disTargets.addAll(exe.getNearbyEntities(dist, dist, dist));
-
-        targets.addAll(disTargets); // Add all targets from this selector
+        Location center = exe.getLocation();
+        double x = center.getX();
+        double y = center.getY();
+        double z = center.getZ();
+        double distSquared = dist * dist;
+
+        // Single box query, then exact sphere check. Location is reused, as the filter is called sequentially.
+        BoundingBox box = new BoundingBox(x - dist, y - dist, z - dist, x + dist, y + dist, z + dist);
+        Location location = new Location(null, 0, 0, 0);
+        targets.addAll(exe.getWorld().getNearbyEntities(box, entity -> {
+            if (entity == exe) return false;
+
+            entity.getLocation(location);
+            double dx = location.getX() - x;
+            double dy = location.getY() - y;
+            double dz = location.getZ() - z;
+            return dx * dx + dy * dy + dz * dz <= distSquared;
+        })); // Add all targets from this selector
     }
 }
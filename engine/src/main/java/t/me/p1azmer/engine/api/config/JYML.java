@@ -440,20 +440,32 @@ public class JYML extends YamlConfiguration {
         String compressed = this.getString(path);
         if (compressed == null) return null;
 
-        return ItemUtil.decompress(compressed);
+        return ItemNbt.decompress(compressed);
     }
 
     public void setItemEncoded(@NotNull String path, @Nullable ItemStack item) {
-        this.set(path, item == null ? null : ItemUtil.compress(item));
+        this.set(path, item == null ? null : ItemNbt.compress(item));
     }
 
     @NotNull
     public ItemStack[] getItemsEncoded(@NotNull String path) {
-        return ItemUtil.decompress(this.getStringList(path));
+        return ItemNbt.decompress(this.getStringList(path));
     }
 
     public void setItemsEncoded(@NotNull String path, @NotNull List<ItemStack> item) {
-        this.set(path, ItemUtil.compress(item));
+        this.set(path, ItemNbt.compress(item));
+    }
+
+    @NotNull
+    public ItemStack[] getInventoryEncoded(@NotNull String path) {
+        String compressed = this.getString(path);
+        if (compressed == null) return new ItemStack[0];
+
+        return InventoryNbt.decompress(compressed);
+    }
+
+    public void setInventoryEncoded(@NotNull String path, @Nullable ItemStack[] items) {
+        this.set(path, items == null ? null : InventoryNbt.compress(items));
     }
 
     @Nullable
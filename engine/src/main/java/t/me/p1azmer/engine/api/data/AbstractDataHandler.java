@@ -2,22 +2,29 @@ package t.me.p1azmer.engine.api.data;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import org.bukkit.Location;
 import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import t.me.p1azmer.engine.NexPlugin;
 import t.me.p1azmer.engine.api.data.config.DataConfig;
 import t.me.p1azmer.engine.api.data.connection.AbstractDataConnector;
 import t.me.p1azmer.engine.api.data.connection.ConnectorMySQL;
 import t.me.p1azmer.engine.api.data.connection.ConnectorSQLite;
-import t.me.p1azmer.engine.api.data.serialize.ItemStackSerializer;
+import t.me.p1azmer.engine.api.data.migration.DataMigration;
+import t.me.p1azmer.engine.api.data.migration.DataMigrator;
+import t.me.p1azmer.engine.api.data.serialize.*;
 import t.me.p1azmer.engine.api.data.sql.SQLColumn;
 import t.me.p1azmer.engine.api.data.sql.SQLCondition;
-import t.me.p1azmer.engine.api.data.sql.SQLQueries;
 import t.me.p1azmer.engine.api.data.sql.SQLValue;
-import t.me.p1azmer.engine.api.data.sql.executor.*;
+import t.me.p1azmer.engine.api.data.storage.DataStorage;
+import t.me.p1azmer.engine.api.data.storage.LogDataStorage;
+import t.me.p1azmer.engine.api.data.storage.SQLDataStorage;
 import t.me.p1azmer.engine.api.data.task.DataSaveTask;
 import t.me.p1azmer.engine.api.data.task.DataSynchronizationTask;
 import t.me.p1azmer.engine.api.manager.AbstractManager;
+import t.me.p1azmer.engine.utils.wrapper.UniParticle;
+import t.me.p1azmer.engine.utils.wrapper.UniSound;
 
 import java.sql.Connection;
 import java.sql.ResultSet;
@@ -26,16 +33,28 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 public abstract class AbstractDataHandler<P extends NexPlugin<P>> extends AbstractManager<P> {
 
     protected final DataConfig config;
     protected final AbstractDataConnector connector;
+    protected final DataStorage storage;
     protected Gson gson;
+    protected Gson prettyGson;
 
     private DataSynchronizationTask<P> synchronizationTask;
     private DataSaveTask<P> saveTask;
+    private ExecutorService executor;
+    private boolean executorClosed;
 
     protected AbstractDataHandler(@NotNull P plugin) {
         this(plugin, new DataConfig(plugin.getConfig()));
@@ -45,17 +64,35 @@ public abstract class AbstractDataHandler<P extends NexPlugin<P>> extends Abstra
         super(plugin);
 
         this.config = config;
-        if (this.getDataType() == StorageType.MYSQL) {
-            this.connector = new ConnectorMySQL(plugin, config);
-        }
-        else {
-            this.connector = new ConnectorSQLite(plugin, config);
-        }
+        this.storage = switch (this.getDataType()) {
+            case MYSQL -> new SQLDataStorage(new ConnectorMySQL(plugin, config), StorageType.MYSQL);
+            case SQLITE -> new SQLDataStorage(new ConnectorSQLite(plugin, config), StorageType.SQLITE);
+            case LOG -> new LogDataStorage(plugin, config);
+        };
+        this.connector = this.storage instanceof SQLDataStorage sqlStorage ? sqlStorage.getConnector() : null;
+    }
+
+    /**
+     * Creates data handler with a custom storage backend.
+     *
+     * @param storage Storage to use instead of the one defined by the config.
+     */
+    protected AbstractDataHandler(@NotNull P plugin, @NotNull DataConfig config, @NotNull DataStorage storage) {
+        super(plugin);
+
+        this.config = config;
+        this.storage = storage;
+        this.connector = this.storage instanceof SQLDataStorage sqlStorage ? sqlStorage.getConnector() : null;
     }
 
     @Override
     protected void onLoad() {
-        this.gson = this.registerAdapters(new GsonBuilder().setPrettyPrinting()).create();
+        synchronized (this) {
+            this.executorClosed = false;
+        }
+        // Compact output for the database columns, pretty one is for the human-readable files.
+        this.gson = this.registerAdapters(new GsonBuilder().disableHtmlEscaping()).create();
+        this.prettyGson = this.gson.newBuilder().setPrettyPrinting().create();
 
         if (this.config != null) {
             if (this.getConfig().saveInterval > 0) {
@@ -64,17 +101,14 @@ public abstract class AbstractDataHandler<P extends NexPlugin<P>> extends Abstra
             }
 
             if (this.getConfig().syncInterval > 0) {
-                if (this.getDataType() != StorageType.SQLITE) {
+                if (this.getStorage().isShared()) {
                     this.synchronizationTask = new DataSynchronizationTask<>(this);
                     this.synchronizationTask.start();
                     this.plugin.info("Enabled data synchronization with " + config.syncInterval + " seconds interval.");
                 }
             }
-
-            if (this.getConfig().purgeEnabled && this.getConfig().purgePeriod > 0) {
-                this.onPurge();
-            }
         }
+        this.purgeIfEnabled();
     }
 
     @Override
@@ -89,7 +123,8 @@ public abstract class AbstractDataHandler<P extends NexPlugin<P>> extends Abstra
         }
         //this.onSynchronize();
         this.onSave();
-        this.getConnector().close();
+        this.shutdownExecutor();
+        this.getStorage().close();
     }
 
     public abstract void onSynchronize();
@@ -98,6 +133,18 @@ public abstract class AbstractDataHandler<P extends NexPlugin<P>> extends Abstra
 
     public abstract void onPurge();
 
+    /**
+     * Starts the purge if it's enabled in the config. Called at the end of {@link #onLoad()}.
+     * Implementations that create their tables after that can override this to start the purge later.
+     */
+    protected void purgeIfEnabled() {
+        if (this.config == null) return;
+
+        if (this.getConfig().purgeEnabled && this.getConfig().purgePeriod > 0) {
+            this.onPurge();
+        }
+    }
+
     @NotNull
     public DataConfig getConfig() {
         return this.config;
@@ -116,14 +163,108 @@ public abstract class AbstractDataHandler<P extends NexPlugin<P>> extends Abstra
         return this.getConfig().tablePrefix;
     }
 
+    @NotNull
+    public DataStorage getStorage() {
+        return this.storage;
+    }
+
+    /**
+     * @return SQL connector of the storage.
+     * @throws UnsupportedOperationException when storage is not an SQL database.
+     */
     @NotNull
     public AbstractDataConnector getConnector() {
+        if (this.connector == null) {
+            throw new UnsupportedOperationException(this.getDataType().getName() + " storage has no SQL connector.");
+        }
         return this.connector;
     }
 
+    /**
+     * Returns executor dedicated for the database operations of this data handler.
+     * Runs a fixed amount of threads, which are virtual when supported by the JVM and enabled in config.
+     *
+     * @return Data executor.
+     * @throws RejectedExecutionException If data handler is already shut down.
+     */
+    @NotNull
+    public synchronized ExecutorService getExecutor() {
+        if (this.executorClosed) {
+            throw new RejectedExecutionException("Data executor of " + this.plugin.getName() + " is already shut down.");
+        }
+        if (this.executor == null) {
+            this.executor = this.createExecutor();
+        }
+        return this.executor;
+    }
+
+    @NotNull
+    private ExecutorService createExecutor() {
+        String name = this.plugin.getName().replace(" ", "_") + "-Data-";
+        ThreadFactory factory = this.getConfig().executorVirtualThreads ? createVirtualThreadFactory(name) : null;
+        if (factory == null) {
+            AtomicInteger counter = new AtomicInteger();
+            factory = runnable -> {
+                Thread thread = new Thread(runnable, name + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+
+        // Bounded even for virtual threads, as JDBC calls pin their carrier threads.
+        return Executors.newFixedThreadPool(Math.max(1, this.getConfig().executorThreads), factory);
+    }
+
+    @Nullable
+    private static ThreadFactory createVirtualThreadFactory(@NotNull String name) {
+        try {
+            // Java 21+ API, called through the public Thread.Builder interface to compile on older versions.
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, name, 1L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        }
+        catch (ReflectiveOperationException exception) {
+            return null;
+        }
+    }
+
+    private synchronized void shutdownExecutor() {
+        this.executorClosed = true;
+        if (this.executor == null) return;
+
+        this.executor.shutdown();
+        try {
+            if (!this.executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                this.plugin.warn("Data executor did not finish its tasks in time.");
+                this.executor.shutdownNow();
+            }
+        }
+        catch (InterruptedException exception) {
+            this.executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        this.executor = null;
+    }
+
     @NotNull
     protected GsonBuilder registerAdapters(@NotNull GsonBuilder builder) {
-        return builder.registerTypeAdapter(ItemStack.class, new ItemStackSerializer());
+        return builder
+            .registerTypeAdapter(ItemStack.class, new ItemStackSerializer())
+            .registerTypeAdapter(Location.class, new LocationSerializer())
+            .registerTypeAdapter(UniSound.class, new UniSoundSerializer())
+            .registerTypeAdapter(UniParticle.class, new UniParticleSerializer())
+            .registerTypeAdapterFactory(new UUIDMapAdapterFactory());
+    }
+
+    @NotNull
+    public Gson getGson() {
+        return this.gson;
+    }
+
+    @NotNull
+    public Gson getPrettyGson() {
+        return this.prettyGson;
     }
 
     @NotNull
@@ -132,39 +273,60 @@ public abstract class AbstractDataHandler<P extends NexPlugin<P>> extends Abstra
     }
 
     public void createTable(@NotNull String table, @NotNull List<SQLColumn> columns) {
-        CreateTableExecutor.builder(table, this.getDataType()).columns(columns).execute(this.getConnector());
+        this.getStorage().createTable(table, columns);
     }
 
     public void renameTable(@NotNull String from, @NotNull String to) {
-        RenameTableExecutor.builder(from, this.getDataType()).renameTo(to).execute(this.getConnector());
+        this.getStorage().renameTable(from, to);
+    }
+
+    public boolean hasTable(@NotNull String table) {
+        return this.getStorage().hasTable(table);
     }
 
     public void addColumn(@NotNull String table, @NotNull SQLValue... columns) {
-        AlterTableExecutor.builder(table, this.getDataType()).addColumn(columns).execute(this.getConnector());
+        this.getStorage().addColumns(table, Arrays.asList(columns));
     }
 
     public void renameColumn(@NotNull String table, @NotNull SQLValue... columns) {
-        AlterTableExecutor.builder(table, this.getDataType()).renameColumn(columns).execute(this.getConnector());
+        this.getStorage().renameColumns(table, Arrays.asList(columns));
     }
 
     public void dropColumn(@NotNull String table, @NotNull SQLColumn... columns) {
-        AlterTableExecutor.builder(table, this.getDataType()).dropColumn(columns).execute(this.getConnector());
+        this.getStorage().dropColumns(table, Arrays.asList(columns));
     }
 
     public boolean hasColumn(@NotNull String table, @NotNull SQLColumn column) {
-        return SQLQueries.hasColumn(this.getConnector(), table, column);
+        return this.getStorage().hasColumn(table, column);
+    }
+
+    /**
+     * @return Versioned schema migrations of this data handler. Applied by {@link #migrate()}.
+     */
+    @NotNull
+    protected List<DataMigration> getMigrations() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Applies schema migrations that were not applied yet. Should be called once the tables are created.
+     *
+     * @return Amount of the applied migrations.
+     */
+    public int migrate() {
+        return new DataMigrator(this).migrate(this.getMigrations());
     }
 
     public void insert(@NotNull String table, @NotNull List<SQLValue> values) {
-        InsertQueryExecutor.builder(table).values(values).execute(this.getConnector());
+        this.getStorage().insert(table, values);
     }
 
     public void update(@NotNull String table, @NotNull List<SQLValue> values, @NotNull SQLCondition... conditions) {
-        UpdateQueryExecutor.builder(table).values(values).where(conditions).execute(this.getConnector());
+        this.getStorage().update(table, values, Arrays.asList(conditions));
     }
 
     public void delete(@NotNull String table, @NotNull SQLCondition... conditions) {
-        DeleteQueryExecutor.builder(table).where(conditions).execute(this.getConnector());
+        this.getStorage().delete(table, Arrays.asList(conditions));
     }
 
     public boolean contains(@NotNull String table, @NotNull SQLCondition... conditions) {
@@ -188,6 +350,29 @@ public abstract class AbstractDataHandler<P extends NexPlugin<P>> extends Abstra
                             @NotNull List<SQLColumn> columns,
                             @NotNull List<SQLCondition> conditions,
                             int amount) {
-        return SelectQueryExecutor.builder(table, dataFunction).columns(columns).where(conditions).execute(this.getConnector());
+        return this.getStorage().load(table, dataFunction, columns, conditions, amount);
+    }
+
+    /**
+     * Loads rows one by one and passes each non-null result to the consumer, without keeping all of them in memory.
+     *
+     * @return Amount of processed rows.
+     */
+    public <T> int loadEach(@NotNull String table, @NotNull Function<ResultSet, T> dataFunction,
+                            @NotNull List<SQLColumn> columns,
+                            @NotNull List<SQLCondition> conditions,
+                            @NotNull Consumer<T> consumer) {
+        return this.getStorage().loadEach(table, dataFunction, columns, conditions, this.getConfig().fetchSize, consumer);
+    }
+
+    /**
+     * Returns lazy stream of the loaded rows. Database connection is kept open until the stream is closed,
+     * so it must be used in try-with-resources.
+     */
+    @NotNull
+    public <T> Stream<T> stream(@NotNull String table, @NotNull Function<ResultSet, T> dataFunction,
+                                @NotNull List<SQLColumn> columns,
+                                @NotNull List<SQLCondition> conditions) {
+        return this.getStorage().stream(table, dataFunction, columns, conditions, this.getConfig().fetchSize);
     }
-}
\ No newline at end of file
+}
@@ -5,7 +5,11 @@ import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import t.me.p1azmer.engine.NexPlugin;
+import t.me.p1azmer.engine.api.data.sql.SQLColumn;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.UUID;
 
 public abstract class AbstractUser<P extends NexPlugin<P>> {
@@ -18,15 +22,19 @@ public abstract class AbstractUser<P extends NexPlugin<P>> {
     protected long   lastOnline;
     protected long   cachedUntil;
 
+    private final Set<String> dirtyColumns = new HashSet<>();
+    private       boolean     dirtyAll;
+    private volatile long     dataVersion;
+
     @Deprecated private boolean isRecent = false;
 
     public AbstractUser(@NotNull P plugin, @NotNull UUID uuid, @NotNull String name, long dateCreated, long lastOnline) {
         this.plugin = plugin;
         this.uuid = uuid;
         this.name = name;
-        this.setDateCreated(dateCreated);
-        this.setLastOnline(lastOnline);
-        this.setCachedUntil(-1);
+        this.dateCreated = dateCreated;
+        this.lastOnline = lastOnline;
+        this.cachedUntil = -1;
     }
 
     public void onLoad() {
@@ -53,6 +61,74 @@ public abstract class AbstractUser<P extends NexPlugin<P>> {
         isRecent = recent;
     }
 
+    /**
+     * Defines whether or not this user tracks changed columns itself.
+     * When enabled, only users marked as dirty will be saved, and only their changed columns will be updated.
+     * Subclasses that override this to return true must call {@link #markDirty(String...)} in their setters.
+     *
+     * @return True if dirty tracking is enabled for this user.
+     */
+    public boolean isDirtyTracking() {
+        return false;
+    }
+
+    public synchronized boolean isDirty() {
+        return !this.isDirtyTracking() || this.dirtyAll || !this.dirtyColumns.isEmpty();
+    }
+
+    public synchronized boolean isDirty(@NotNull String column) {
+        return !this.isDirtyTracking() || this.dirtyAll || this.dirtyColumns.contains(column);
+    }
+
+    /**
+     * Marks all user columns as changed.
+     */
+    public synchronized void markDirty() {
+        this.dirtyAll = true;
+    }
+
+    public synchronized void markDirty(@NotNull String... columns) {
+        Collections.addAll(this.dirtyColumns, columns);
+    }
+
+    public void markDirty(@NotNull SQLColumn... columns) {
+        for (SQLColumn column : columns) {
+            this.markDirty(column.getName());
+        }
+    }
+
+    public synchronized void clearDirty() {
+        this.dirtyAll = false;
+        this.dirtyColumns.clear();
+    }
+
+    /**
+     * Returns changed columns and resets the dirty state of this user.
+     *
+     * @return Names of the changed columns, or null if all columns should be saved.
+     */
+    @Nullable
+    public synchronized Set<String> pollDirtyColumns() {
+        if (!this.isDirtyTracking() || this.dirtyAll) {
+            this.clearDirty();
+            return null;
+        }
+        Set<String> columns = new HashSet<>(this.dirtyColumns);
+        this.dirtyColumns.clear();
+        return columns;
+    }
+
+    /**
+     * @return Value of the 'updated_at' column of the last saved or synchronized version of this user data.
+     */
+    public long getDataVersion() {
+        return this.dataVersion;
+    }
+
+    void setDataVersion(long dataVersion) {
+        this.dataVersion = dataVersion;
+    }
+
     public boolean isCacheExpired() {
         return this.getCachedUntil() > 0 && System.currentTimeMillis() > this.getCachedUntil();
     }
@@ -77,6 +153,7 @@ public abstract class AbstractUser<P extends NexPlugin<P>> {
 
     void setName(String name) {
         this.name = name;
+        this.markDirty(AbstractUserDataHandler.COLUMN_USER_NAME);
     }
 
     public final long getDateCreated() {
@@ -85,6 +162,7 @@ public abstract class AbstractUser<P extends NexPlugin<P>> {
 
     public final void setDateCreated(long dateCreated) {
         this.dateCreated = dateCreated;
+        this.markDirty(AbstractUserDataHandler.COLUMN_USER_DATE_CREATED);
     }
 
     public final long getLastOnline() {
@@ -93,6 +171,7 @@ public abstract class AbstractUser<P extends NexPlugin<P>> {
 
     public final void setLastOnline(long lastOnline) {
         this.lastOnline = lastOnline;
+        this.markDirty(AbstractUserDataHandler.COLUMN_USER_LAST_ONLINE);
     }
 
     public final boolean isOnline() {
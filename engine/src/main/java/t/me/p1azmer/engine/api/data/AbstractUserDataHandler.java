@@ -7,17 +7,24 @@ import t.me.p1azmer.engine.NexPlugin;
 import t.me.p1azmer.engine.api.data.config.DataConfig;
 import t.me.p1azmer.engine.api.data.sql.SQLColumn;
 import t.me.p1azmer.engine.api.data.sql.SQLCondition;
-import t.me.p1azmer.engine.api.data.sql.SQLQueries;
 import t.me.p1azmer.engine.api.data.sql.SQLValue;
 import t.me.p1azmer.engine.api.data.sql.column.ColumnType;
+import t.me.p1azmer.engine.api.data.storage.DataStorage;
 import t.me.p1azmer.engine.config.EngineConfig;
 import t.me.p1azmer.engine.utils.TimeUtil;
+import t.me.p1azmer.engine.utils.collections.BloomFilter;
+import t.me.p1azmer.engine.utils.collections.HashedNameSet;
+import t.me.p1azmer.engine.utils.collections.UUIDSet;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 public abstract class AbstractUserDataHandler<P extends NexPlugin<P>, U extends AbstractUser<P>> extends AbstractDataHandler<P> {
 
@@ -25,12 +32,30 @@ public abstract class AbstractUserDataHandler<P extends NexPlugin<P>, U extends
     protected static final SQLColumn COLUMN_USER_NAME         = SQLColumn.of("name", ColumnType.STRING);
     protected static final SQLColumn COLUMN_USER_DATE_CREATED = SQLColumn.of("dateCreated", ColumnType.LONG);
     protected static final SQLColumn COLUMN_USER_LAST_ONLINE  = SQLColumn.of("last_online", ColumnType.LONG);
+    protected static final SQLColumn COLUMN_USER_UPDATED_AT   = SQLColumn.of("updated_at", ColumnType.LONG);
+
+    /** Time (in milliseconds) to look back from the sync cursor, to catch rows committed late or written by servers with clock drift. */
+    private static final long SYNC_CURSOR_OVERLAP = 5000L;
 
     protected final UserDataHolder<P, U> dataHolder;
     protected final String tableUsers;
 
-    protected final Set<UUID> existIDs;
-    protected final Set<String> existNames;
+    protected final UUIDSet       existIDs;
+    protected final HashedNameSet existNames;
+    protected final UserSaveQueue<P, U> saveQueue;
+
+    private boolean upsertSupported;
+    private long    syncCursor;
+
+    private UserPurgeJob<P, U> purgeJob;
+    private boolean            tablesReady;
+
+    private volatile BloomFilter idFilter;
+    private volatile BloomFilter nameFilter;
+    private volatile BloomFilter buildingIdFilter;
+    private volatile BloomFilter buildingNameFilter;
+
+    private final AtomicBoolean filterRebuilding = new AtomicBoolean();
 
     protected AbstractUserDataHandler(@NotNull P plugin, @NotNull UserDataHolder<P, U> dataHolder) {
         this(plugin, dataHolder, new DataConfig(plugin.getConfig()));
@@ -40,37 +65,166 @@ public abstract class AbstractUserDataHandler<P extends NexPlugin<P>, U extends
         super(plugin, config);
         this.dataHolder = dataHolder;
         this.tableUsers = this.getTablePrefix() + "_users";
-        this.existIDs = new HashSet<>();
-        this.existNames = new HashSet<>();
+        this.existIDs = new UUIDSet();
+        this.existNames = new HashedNameSet();
+        this.saveQueue = new UserSaveQueue<>(this);
+    }
+
+    protected AbstractUserDataHandler(@NotNull P plugin, @NotNull UserDataHolder<P, U> dataHolder, @NotNull DataConfig config,
+                                      @NotNull DataStorage storage) {
+        super(plugin, config, storage);
+        this.dataHolder = dataHolder;
+        this.tableUsers = this.getTablePrefix() + "_users";
+        this.existIDs = new UUIDSet();
+        this.existNames = new HashedNameSet();
+        this.saveQueue = new UserSaveQueue<>(this);
     }
 
     @Override
     protected void onLoad() {
         super.onLoad();
         this.createUserTable();
+        this.migrate();
         this.cacheNamesAndIds();
+        if (this.isExistenceFilterEnabled()) {
+            this.buildExistenceFilter();
+        }
+
+        if (this.isSaveQueueEnabled()) {
+            this.saveQueue.start();
+        }
+
+        this.tablesReady = true;
+        this.purgeIfEnabled();
+    }
+
+    /**
+     * Purge is delayed until the users table is created and migrated, and the name and ID caches are built.
+     */
+    @Override
+    protected void purgeIfEnabled() {
+        if (!this.tablesReady) return;
+
+        super.purgeIfEnabled();
     }
 
     @Override
     protected void onShutdown() {
+        this.tablesReady = false;
+        if (this.purgeJob != null) {
+            this.purgeJob.cancel();
+            this.purgeJob = null;
+        }
+        this.saveQueue.stop();
         super.onShutdown();
     }
 
     @Override
     public void onSave() {
-        for (U user : this.dataHolder.getUserManager().getUsersLoaded()) {
-            this.saveUser(user);
+        this.saveQueue.enqueue(this.dataHolder.getUserManager().getUsersLoaded().stream().filter(AbstractUser::isDirty).toList());
+        this.saveQueue.flush();
+    }
+
+    /**
+     * Fetches users changed since the last synchronization and merges them into the loaded ones.
+     * Override this if plugin needs to synchronize other tables, calling super to keep users synchronized.
+     */
+    @Override
+    public void onSynchronize() {
+        this.synchronizeUsers();
+    }
+
+    /**
+     * Loads user records with 'updated_at' value greater than the sync cursor and passes them to
+     * {@link #onUserSynchronize(AbstractUser, AbstractUser)} for the loaded users with the same UUID.
+     * Users that have unsaved changes are skipped, as well as records that were written by this server.
+     * Records are fetched on the calling thread, but merged into the loaded users on the main thread.
+     */
+    public void synchronizeUsers() {
+        AbstractUserManager<P, U> userManager = this.dataHolder.getUserManager();
+        long since = this.syncCursor == 0L ? System.currentTimeMillis() - SYNC_CURSOR_OVERLAP : this.syncCursor - SYNC_CURSOR_OVERLAP;
+        long[] cursor = new long[]{this.syncCursor};
+
+        List<SQLColumn> columns = new ArrayList<>(this.getReadColumns());
+        if (!columns.isEmpty()) {
+            if (!columns.contains(COLUMN_USER_ID)) columns.add(COLUMN_USER_ID);
+            if (!columns.contains(COLUMN_USER_UPDATED_AT)) columns.add(COLUMN_USER_UPDATED_AT);
         }
+
+        Function<ResultSet, U> function = this.getFunctionToUser();
+        Map<U, U> remotes = new LinkedHashMap<>();
+        this.loadEach(this.tableUsers, resultSet -> {
+            try {
+                long version = resultSet.getLong(COLUMN_USER_UPDATED_AT.getName());
+                cursor[0] = Math.max(cursor[0], version);
+
+                UUID uuid = UUID.fromString(resultSet.getString(COLUMN_USER_ID.getName()));
+                U user = userManager.getUserLoaded(uuid);
+                if (user == null || !this.isSynchronizable(user, version)) return null;
+
+                U remote = function.apply(resultSet);
+                if (remote == null) return null;
+
+                remote.setDataVersion(version);
+                remotes.put(user, remote);
+            }
+            catch (SQLException exception) {
+                exception.printStackTrace();
+            }
+            return null;
+        }, columns, Collections.singletonList(SQLCondition.greater(COLUMN_USER_UPDATED_AT.toValue(since))), nothing -> {});
+
+        this.syncCursor = Math.max(cursor[0], since);
+        if (remotes.isEmpty() || !this.plugin.isEnabled()) return;
+
+        // Loaded users are modified on the main thread only, so the fetched data is applied there.
+        this.plugin.runTask(task -> remotes.forEach((user, remote) -> {
+            // User could be changed or synchronized while the task was waiting for its turn.
+            if (!this.isSynchronizable(user, remote.getDataVersion())) return;
+
+            this.onUserSynchronize(user, remote);
+            user.clearDirty();
+            user.setDataVersion(remote.getDataVersion());
+        }));
     }
 
+    private boolean isSynchronizable(@NotNull U user, long version) {
+        if (version <= user.getDataVersion()) return false;
+
+        return !this.saveQueue.isQueued(user.getId()) && !(user.isDirtyTracking() && user.isDirty());
+    }
+
+    /**
+     * Merges data of the remote user record into the loaded user, keeping its object identity.
+     * Called on the main thread.
+     * Override this to copy plugin specific user fields, calling super to copy the common ones.
+     *
+     * @param user   Currently loaded user.
+     * @param remote User created from the changed database record.
+     */
+    protected void onUserSynchronize(@NotNull U user, @NotNull U remote) {
+        user.setDateCreated(remote.getDateCreated());
+        user.setLastOnline(remote.getLastOnline());
+    }
+
+    /**
+     * Starts background removal of the users that were offline longer than the purge period.
+     */
     @Override
     public void onPurge() {
-        if (!SQLQueries.hasTable(this.getConnector(), this.tableUsers)) return;
+        if (this.purgeJob != null && this.purgeJob.isRunning()) return;
+        if (!this.hasTable(this.tableUsers)) return;
 
         LocalDateTime deadline = LocalDateTime.now().minusDays(this.getConfig().purgePeriod);
         long deadlineMs = TimeUtil.toEpochMillis(deadline);
 
-        this.delete(this.tableUsers, SQLCondition.smaller(COLUMN_USER_LAST_ONLINE.toValue(deadlineMs)));
+        this.purgeJob = new UserPurgeJob<>(this, this.tableUsers, deadlineMs);
+        this.getExecutor().execute(this.purgeJob);
+    }
+
+    @Nullable
+    public UserPurgeJob<P, U> getPurgeJob() {
+        return this.purgeJob;
     }
 
     protected void createUserTable() {
@@ -79,9 +233,17 @@ public abstract class AbstractUserDataHandler<P extends NexPlugin<P>, U extends
         columns.add(COLUMN_USER_NAME);
         columns.add(COLUMN_USER_DATE_CREATED);
         columns.add(COLUMN_USER_LAST_ONLINE);
+        columns.add(COLUMN_USER_UPDATED_AT);
         columns.addAll(this.getExtraColumns());
 
         this.createTable(this.tableUsers, columns);
+        this.addColumn(this.tableUsers, COLUMN_USER_UPDATED_AT.toValue(0L));
+        this.getStorage().createIndex(this.tableUsers, this.tableUsers + "_updated_index", Collections.singletonList(COLUMN_USER_UPDATED_AT), false);
+
+        this.upsertSupported = this.getStorage().createIndex(this.tableUsers, this.tableUsers + "_uuid_index", Collections.singletonList(COLUMN_USER_ID), true);
+        if (!this.upsertSupported) {
+            this.plugin.warn("Could not create unique index for user IDs in '" + this.tableUsers + "' table. Are there duplicated user records?");
+        }
     }
 
     public void cacheNamesAndIds() {
@@ -89,8 +251,9 @@ public abstract class AbstractUserDataHandler<P extends NexPlugin<P>, U extends
 
         Function<ResultSet, Void> function = resultSet -> {
             try {
+                String name = resultSet.getString(COLUMN_USER_NAME.getName());
                 this.existIDs.add(UUID.fromString(resultSet.getString(COLUMN_USER_ID.getName())));
-                this.existNames.add(resultSet.getString(COLUMN_USER_NAME.getName()).toLowerCase());
+                if (name != null) this.existNames.add(name);
             }
             catch (SQLException exception) {
                 exception.printStackTrace();
@@ -98,7 +261,88 @@ public abstract class AbstractUserDataHandler<P extends NexPlugin<P>, U extends
             return null;
         };
 
-        this.load(this.tableUsers, function, Arrays.asList(COLUMN_USER_ID, COLUMN_USER_NAME), Collections.emptyList(), -1);
+        this.loadEach(this.tableUsers, function, Arrays.asList(COLUMN_USER_ID, COLUMN_USER_NAME), Collections.emptyList(), nothing -> {});
+    }
+
+    public boolean isExistenceFilterEnabled() {
+        return !EngineConfig.USER_CACHE_NAME_AND_UUID.get() && EngineConfig.USER_EXISTENCE_FILTER_ENABLED.get();
+    }
+
+    /**
+     * Builds Bloom filters of user IDs and names by streaming the users table.
+     * Users added while the filters are built are put in them as well, and filters are used only once completed.
+     */
+    public synchronized void buildExistenceFilter() {
+        long expected = Math.max(1024L, this.getStorage().count(this.tableUsers) * 2L);
+        double rate = EngineConfig.USER_EXISTENCE_FILTER_FALSE_POSITIVE_RATE.get();
+        BloomFilter ids = new BloomFilter(expected, rate);
+        BloomFilter names = new BloomFilter(expected, rate);
+        this.buildingIdFilter = ids;
+        this.buildingNameFilter = names;
+
+        this.loadEach(this.tableUsers, resultSet -> {
+            try {
+                String id = resultSet.getString(COLUMN_USER_ID.getName());
+                String name = resultSet.getString(COLUMN_USER_NAME.getName());
+                if (id != null) ids.put(UUID.fromString(id));
+                if (name != null) names.put(name);
+            }
+            catch (SQLException | IllegalArgumentException exception) {
+                exception.printStackTrace();
+            }
+            return null;
+        }, Arrays.asList(COLUMN_USER_ID, COLUMN_USER_NAME), Collections.emptyList(), nothing -> {});
+
+        this.idFilter = ids;
+        this.nameFilter = names;
+        this.buildingIdFilter = null;
+        this.buildingNameFilter = null;
+    }
+
+    protected void cacheNameAndId(@NotNull UUID uuid, @NotNull String name) {
+        if (EngineConfig.USER_CACHE_NAME_AND_UUID.get()) {
+            this.existIDs.add(uuid);
+            this.existNames.add(name);
+            return;
+        }
+
+        BloomFilter ids = this.idFilter, names = this.nameFilter;
+        BloomFilter buildingIds = this.buildingIdFilter, buildingNames = this.buildingNameFilter;
+        if (ids != null) ids.put(uuid);
+        if (names != null) names.put(name);
+        if (buildingIds != null) buildingIds.put(uuid);
+        if (buildingNames != null) buildingNames.put(name);
+
+        // Saturation is noticed by many threads at once, but the filters have to be built only once.
+        if (ids != null && ids.isSaturated() && buildingIds == null && this.filterRebuilding.compareAndSet(false, true)) {
+            try {
+                this.getExecutor().execute(() -> {
+                    try {
+                        this.buildExistenceFilter();
+                    }
+                    finally {
+                        this.filterRebuilding.set(false);
+                    }
+                });
+            }
+            catch (RejectedExecutionException exception) {
+                this.filterRebuilding.set(false);
+            }
+        }
+    }
+
+    /**
+     * Tells if there is surely no record for the specified user, without a database query.
+     *
+     * @param uuid User ID.
+     * @return True if user does not exist for sure, false if it exists or it's unknown.
+     */
+    public boolean isUserSurelyAbsent(@NotNull UUID uuid) {
+        if (EngineConfig.USER_CACHE_NAME_AND_UUID.get()) {
+            return !this.existIDs.contains(uuid);
+        }
+        BloomFilter filter = this.idFilter;
+        return filter != null && !filter.mightContain(uuid);
     }
 
     @NotNull
@@ -112,12 +356,63 @@ public abstract class AbstractUserDataHandler<P extends NexPlugin<P>, U extends
     @NotNull
     protected abstract List<SQLValue> getSaveColumns(@NotNull U user);
 
+    /**
+     * Returns values of the changed user columns only.
+     * Override this to avoid serialization of columns that were not changed.
+     *
+     * @param user    User to save.
+     * @param columns Names of the changed columns.
+     * @return List of column values to update.
+     */
+    @NotNull
+    protected List<SQLValue> getSaveColumns(@NotNull U user, @NotNull Set<String> columns) {
+        return this.getSaveColumns(user).stream().filter(value -> columns.contains(value.getColumn().getName())).toList();
+    }
+
     @NotNull
     protected abstract Function<ResultSet, U> getFunctionToUser();
 
+    @NotNull
+    private Function<ResultSet, U> getVersionedFunctionToUser() {
+        Function<ResultSet, U> function = this.getFunctionToUser();
+        return resultSet -> {
+            U user = function.apply(resultSet);
+            if (user == null) return null;
+
+            // Setters called by the subclass constructors mark columns as changed, but the user is just loaded.
+            user.clearDirty();
+            try {
+                user.setDataVersion(resultSet.getLong(COLUMN_USER_UPDATED_AT.getName()));
+            }
+            catch (SQLException ignored) {
+                // Column is not in the read columns.
+            }
+            return user;
+        };
+    }
+
     @NotNull
     public List<U> getUsers() {
-        return this.load(this.tableUsers, this.getFunctionToUser(), Collections.emptyList(), Collections.emptyList(), -1);
+        List<U> users = new ArrayList<>();
+        this.forEachUser(users::add);
+        return users;
+    }
+
+    /**
+     * Loads all users from the database one by one, without keeping all of them in memory.
+     *
+     * @param consumer Consumer for the loaded users.
+     */
+    public void forEachUser(@NotNull Consumer<U> consumer) {
+        this.loadEach(this.tableUsers, this.getVersionedFunctionToUser(), this.getReadColumns(), Collections.emptyList(), consumer);
+    }
+
+    /**
+     * Returns lazy stream of all users from the database. Stream must be closed after use.
+     */
+    @NotNull
+    public Stream<U> streamUsers() {
+        return this.stream(this.tableUsers, this.getVersionedFunctionToUser(), this.getReadColumns(), Collections.emptyList());
     }
 
     @Nullable
@@ -127,68 +422,195 @@ public abstract class AbstractUserDataHandler<P extends NexPlugin<P>, U extends
 
     @Nullable
     public final U getUser(@NotNull String name) {
-        return this.load(this.tableUsers, this.getFunctionToUser(), this.getReadColumns(),
+        return this.load(this.tableUsers, this.getVersionedFunctionToUser(), this.getReadColumns(),
                 Collections.singletonList(SQLCondition.equal(COLUMN_USER_NAME.asLowerCase().toValue(name.toLowerCase())))
         ).orElse(null);
     }
 
     @Nullable
     public final U getUser(@NotNull UUID uuid) {
-        return this.load(this.tableUsers, this.getFunctionToUser(), this.getReadColumns(),
+        return this.load(this.tableUsers, this.getVersionedFunctionToUser(), this.getReadColumns(),
                 Collections.singletonList(SQLCondition.equal(COLUMN_USER_ID.toValue(uuid)))
         ).orElse(null);
     }
 
     public boolean isUserExists(@NotNull String name) {
         if (EngineConfig.USER_CACHE_NAME_AND_UUID.get()) {
-            return this.existNames.contains(name.toLowerCase());
+            return this.existNames.contains(name);
         }
+        BloomFilter filter = this.nameFilter;
+        if (filter != null && !filter.mightContain(name)) return false;
+
         return this.contains(this.tableUsers, Collections.singletonList(COLUMN_USER_NAME), SQLCondition.equal(COLUMN_USER_NAME.asLowerCase().toValue(name.toLowerCase())));
     }
 
     public boolean isUserExists(@NotNull UUID uuid) {
-        if (EngineConfig.USER_CACHE_NAME_AND_UUID.get()) {
-            return this.existIDs.contains(uuid);
-        }
+        if (this.isUserSurelyAbsent(uuid)) return false;
+        if (EngineConfig.USER_CACHE_NAME_AND_UUID.get()) return true;
+
         return this.contains(this.tableUsers, Collections.singletonList(COLUMN_USER_ID), SQLCondition.equal(COLUMN_USER_ID.toValue(uuid)));
     }
 
+    public boolean isSaveQueueEnabled() {
+        return this.getConfig().saveQueueEnabled;
+    }
+
+    @NotNull
+    public UserSaveQueue<P, U> getSaveQueue() {
+        return this.saveQueue;
+    }
+
+    /**
+     * Saves the user, see {@link #saveUsers(Collection)}. Changed columns are marked dirty again if the save failed.
+     *
+     * @param user User to save.
+     */
     public void saveUser(@NotNull U user) {
+        this.saveUsers(Collections.singletonList(user));
+    }
+
+    /**
+     * Saves all the specified users at once, using JDBC batches within a single transaction for SQL storages.
+     * Only changed columns are updated for users with dirty tracking enabled, and unchanged users are skipped.
+     *
+     * @param users Users to save.
+     * @return True if all users were saved, false otherwise.
+     */
+    public boolean saveUsers(@NotNull Collection<U> users) {
+        Map<U, Set<String>> polled = new HashMap<>();
+        List<DataStorage.Update> updates = new ArrayList<>();
+        for (U user : users) {
+            Set<String> columns = user.pollDirtyColumns();
+            DataStorage.Update update = this.createUserUpdate(user, columns);
+            if (update == null) continue;
+
+            polled.put(user, columns);
+            updates.add(update);
+        }
+
+        if (updates.isEmpty()) return true;
+        if (this.getStorage().updateBatch(this.tableUsers, updates)) return true;
+
+        polled.forEach((user, columns) -> {
+            if (columns == null) user.markDirty();
+            else user.markDirty(columns.toArray(new String[0]));
+        });
+        return false;
+    }
+
+    @Nullable
+    private DataStorage.Update createUserUpdate(@NotNull U user, @Nullable Set<String> columns) {
         List<SQLValue> values = new ArrayList<>();
-        values.add(COLUMN_USER_NAME.toValue(user.getName()));
-        values.add(COLUMN_USER_DATE_CREATED.toValue(user.getDateCreated()));
-        values.add(COLUMN_USER_LAST_ONLINE.toValue(user.getLastOnline()));
-        values.addAll(this.getSaveColumns(user));
+        if (columns == null || columns.contains(COLUMN_USER_NAME.getName())) {
+            values.add(COLUMN_USER_NAME.toValue(user.getName()));
+        }
+        if (columns == null || columns.contains(COLUMN_USER_DATE_CREATED.getName())) {
+            values.add(COLUMN_USER_DATE_CREATED.toValue(user.getDateCreated()));
+        }
+        if (columns == null || columns.contains(COLUMN_USER_LAST_ONLINE.getName())) {
+            values.add(COLUMN_USER_LAST_ONLINE.toValue(user.getLastOnline()));
+        }
+        values.addAll(columns == null ? this.getSaveColumns(user) : this.getSaveColumns(user, columns));
+        if (values.isEmpty()) return null;
 
-        this.update(this.tableUsers, values, SQLCondition.equal(COLUMN_USER_ID.toValue(user.getId())));
+        values.add(COLUMN_USER_UPDATED_AT.toValue(this.nextDataVersion(user)));
+
+        return new DataStorage.Update(values, Collections.singletonList(SQLCondition.equal(COLUMN_USER_ID.toValue(user.getId()))));
+    }
+
+    public boolean isUpsertSupported() {
+        return this.upsertSupported;
+    }
+
+    /**
+     * Updates user record or inserts a new one if there is no such user in the database.
+     * Uses a single UPSERT statement when user table has a unique index for user IDs.
+     *
+     * @param user User to save.
+     */
+    public void saveOrInsert(@NotNull U user) {
+        if (!this.isUpsertSupported()) {
+            if (this.isUserExists(user.getId())) this.saveUser(user);
+            else this.addUser(user);
+            return;
+        }
+
+        if (this.getStorage().upsert(this.tableUsers, this.getInsertValues(user), Collections.singletonList(COLUMN_USER_ID), false) < 0) return;
+
+        user.clearDirty();
+        this.cacheNameAndId(user.getId(), user.getName());
     }
 
     public void addUser(@NotNull U user) {
+        this.addUserIfAbsent(user);
+    }
+
+    /**
+     * Inserts a new user record, leaving the existing one untouched if there is already a record for this user.
+     *
+     * @param user User to insert.
+     * @return True if user record was inserted, false if it already exists or the query failed.
+     */
+    public boolean addUserIfAbsent(@NotNull U user) {
+        int inserted;
+        if (this.isUpsertSupported()) {
+            inserted = this.getStorage().upsert(this.tableUsers, this.getInsertValues(user), Collections.singletonList(COLUMN_USER_ID), true);
+        }
+        else {
+            if (this.isUserExists(user.getId())) return false;
+
+            this.insert(this.tableUsers, this.getInsertValues(user));
+            inserted = 1;
+        }
+        if (inserted <= 0) return false;
+
+        user.clearDirty();
+        this.cacheNameAndId(user.getId(), user.getName());
+        return true;
+    }
+
+    @NotNull
+    private List<SQLValue> getInsertValues(@NotNull U user) {
         List<SQLValue> values = new ArrayList<>();
         values.add(COLUMN_USER_ID.toValue(user.getId()));
         values.add(COLUMN_USER_NAME.toValue(user.getName()));
         values.add(COLUMN_USER_DATE_CREATED.toValue(user.getDateCreated()));
         values.add(COLUMN_USER_LAST_ONLINE.toValue(user.getLastOnline()));
+        values.add(COLUMN_USER_UPDATED_AT.toValue(this.nextDataVersion(user)));
         values.addAll(this.getSaveColumns(user));
+        return values;
+    }
 
-        this.insert(this.tableUsers, values);
-
-        this.existIDs.add(user.getId());
-        this.existNames.add(user.getName());
+    private long nextDataVersion(@NotNull U user) {
+        long version = Math.max(System.currentTimeMillis(), user.getDataVersion() + 1);
+        user.setDataVersion(version);
+        return version;
     }
 
     public void deleteUser(@NotNull UUID uuid) {
-        this.delete(this.tableUsers, SQLCondition.equal(COLUMN_USER_ID.toValue(uuid)));
+        String name = this.load(this.tableUsers, resultSet -> {
+            try {
+                return resultSet.getString(COLUMN_USER_NAME.getName());
+            }
+            catch (SQLException exception) {
+                exception.printStackTrace();
+                return null;
+            }
+        }, Collections.singletonList(COLUMN_USER_NAME), Collections.singletonList(SQLCondition.equal(COLUMN_USER_ID.toValue(uuid)))).orElse(null);
 
-        this.existIDs.clear();
-        this.existNames.clear();
-        this.cacheNamesAndIds();
+        this.delete(this.tableUsers, SQLCondition.equal(COLUMN_USER_ID.toValue(uuid)));
+        this.uncacheNameAndId(uuid, name);
     }
 
     public void deleteUser(@NotNull U user) {
         this.delete(this.tableUsers, SQLCondition.equal(COLUMN_USER_ID.toValue(user.getId())));
+        this.uncacheNameAndId(user.getId(), user.getName());
+    }
 
-        this.existIDs.remove(user.getId());
-        this.existNames.remove(user.getName());
+    protected void uncacheNameAndId(@NotNull UUID uuid, @Nullable String name) {
+        this.existIDs.remove(uuid);
+        if (name != null) {
+            this.existNames.remove(name);
+        }
     }
 }
\ No newline at end of file
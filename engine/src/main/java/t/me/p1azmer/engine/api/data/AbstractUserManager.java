@@ -12,36 +12,62 @@ import org.bukkit.event.world.WorldUnloadEvent;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import t.me.p1azmer.engine.NexPlugin;
+import t.me.p1azmer.engine.api.data.task.UserCacheSweepTask;
 import t.me.p1azmer.engine.api.manager.AbstractListener;
 import t.me.p1azmer.engine.api.manager.AbstractManager;
 import t.me.p1azmer.engine.config.EngineConfig;
 import t.me.p1azmer.engine.utils.PlayerUtil;
+import t.me.p1azmer.engine.utils.collections.TimingWheel;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public abstract class AbstractUserManager<P extends NexPlugin<P>, U extends AbstractUser<P>> extends AbstractManager<P> {
 
     private final UserDataHolder<P, U> dataHolder;
     private final Map<UUID, U> usersLoaded;
+    private final Map<String, UUID> namesLoaded;
+    private final Map<UUID, CompletableFuture<U>>   loadingIds;
+    private final Map<String, CompletableFuture<U>> loadingNames;
+
+    private final TimingWheel<U> evictionWheel;
+    private final AtomicLong     evictions;
+
+    private UserCacheSweepTask<P> sweepTask;
 
     public AbstractUserManager(@NotNull P plugin, @NotNull UserDataHolder<P, U> dataHolder) {
         super(plugin);
         this.dataHolder = dataHolder;
         this.usersLoaded = new ConcurrentHashMap<>();
+        this.namesLoaded = new ConcurrentHashMap<>();
+        this.loadingIds = new ConcurrentHashMap<>();
+        this.loadingNames = new ConcurrentHashMap<>();
+        this.evictionWheel = new TimingWheel<>(1000L, 512);
+        this.evictions = new AtomicLong();
     }
 
     @Override
     protected void onLoad() {
         this.addListener(new PlayerListener(this.plugin));
+
+        this.sweepTask = new UserCacheSweepTask<>(this, EngineConfig.USER_CACHE_SWEEP_INTERVAL.get());
+        this.sweepTask.start();
     }
 
     @Override
     protected void onShutdown() {
-        this.getUsersLoaded().forEach(user -> this.dataHolder.getData().saveUser(user));
-        this.getUsersLoadedMap().clear();
+        if (this.sweepTask != null) {
+            this.sweepTask.stop();
+            this.sweepTask = null;
+        }
+        this.dataHolder.getData().saveUsers(this.getUsersLoaded());
+        this.usersLoaded.clear();
+        this.namesLoaded.clear();
+        this.evictionWheel.clear();
     }
 
     @NotNull
@@ -49,11 +75,18 @@ public abstract class AbstractUserManager<P extends NexPlugin<P>, U extends Abst
 
     public void loadOnlineUsers() {
         this.plugin.getServer().getOnlinePlayers().stream().map(Player::getUniqueId).forEach(id -> {
-            U user = this.getUserData(id);
+            U user = this.loadUserData(id);
             if (user != null) this.cachePermanent(user);
         });
     }
 
+    /**
+     * Returns data of the online player. Data of real players is loaded on login, so it's usually cached already.
+     * Otherwise it's loaded from the database on the calling thread, even in strict async mode (with a warning logged then).
+     * Players that are not real (NPCs) get a temporary data that is not cached.
+     * @param player A player to get data for.
+     * @return User data of the player.
+     */
     @NotNull
     public final U getUserData(@NotNull Player player) {
         UUID uuid = player.getUniqueId();
@@ -62,9 +95,11 @@ public abstract class AbstractUserManager<P extends NexPlugin<P>, U extends Abst
         if (user != null) return user;
 
         if (PlayerUtil.isReal(player)) {
-            user = this.getUserData(uuid);
+            // Online players are loaded on login, so this is a rare fallback. It is not deferred even in strict mode,
+            // as a temporary data would not be cached and all the changes made to it would be lost.
+            user = this.loadUserData(uuid);
             if (user != null) {
-                if (EngineConfig.USER_DEBUG_ENABLED.get()) {
+                if (EngineConfig.USER_DEBUG_ENABLED.get() || this.isStrictMainThread()) {
                     new Throwable().printStackTrace();
                     this.plugin.warn("Main thread user data load for '" + uuid + "' aka '" + player.getName() + "'.");
                 }
@@ -78,6 +113,8 @@ public abstract class AbstractUserManager<P extends NexPlugin<P>, U extends Abst
     /**
      * Attempts to load user data from online or cached player with that name.
      * If no such player data found, attempts to load it from the database.
+     * In strict async mode, returns null on the main thread if the data is not cached, and loads it asynchronously instead.
+     * Use {@link #getUserDataAsync(String)} to get the result once it's loaded.
      * @param name A user name to load data for.
      * @return User data for the specified user name.
      */
@@ -89,19 +126,19 @@ public abstract class AbstractUserManager<P extends NexPlugin<P>, U extends Abst
         U user = this.getUserLoaded(name);
         if (user != null) return user;
 
-        user = this.dataHolder.getData().getUser(name);
-        if (user != null) {
-            user.onLoad();
-            //this.plugin.debug("Loaded by name from DB: " + user.getName());
-            this.cacheTemporary(user);
+        if (this.isStrictMainThread()) {
+            this.getUserDataAsync(name);
+            return null;
         }
 
-        return user;
+        return this.loadUserData(name);
     }
 
     /**
      * Attempts to load user data from online player with that UUID (if there is any).
      * In case if no such player is online, attempts to load data from the database.
+     * In strict async mode, returns null on the main thread if the data is not cached, and loads it asynchronously instead.
+     * Use {@link #getUserDataAsync(UUID)} to get the result once it's loaded.
      * @param uuid A user unique id to load data for.
      * @return User data for the specified uuid.
      */
@@ -110,6 +147,34 @@ public abstract class AbstractUserManager<P extends NexPlugin<P>, U extends Abst
         U user = this.getUserLoaded(uuid);
         if (user != null) return user;
 
+        if (this.isStrictMainThread()) {
+            this.getUserDataAsync(uuid);
+            return null;
+        }
+
+        return this.loadUserData(uuid);
+    }
+
+    @Nullable
+    private U loadUserData(@NotNull String name) {
+        U user = this.getUserLoaded(name);
+        if (user != null) return user;
+
+        user = this.dataHolder.getData().getUser(name);
+        if (user != null) {
+            user.onLoad();
+            //this.plugin.debug("Loaded by name from DB: " + user.getName());
+            this.cacheTemporary(user);
+        }
+
+        return user;
+    }
+
+    @Nullable
+    private U loadUserData(@NotNull UUID uuid) {
+        U user = this.getUserLoaded(uuid);
+        if (user != null) return user;
+
         user = this.dataHolder.getData().getUser(uuid);
         if (user != null) {
             user.onLoad();
@@ -120,12 +185,62 @@ public abstract class AbstractUserManager<P extends NexPlugin<P>, U extends Abst
         return user;
     }
 
+    private boolean isStrictMainThread() {
+        return EngineConfig.USER_STRICT_ASYNC_LOAD.get() && this.plugin.getServer().isPrimaryThread();
+    }
+
+    /**
+     * Loads user data on the data handler's executor.
+     * Concurrent requests for the same user share the same future.
+     * @param name A user name to load data for.
+     * @return Future with the user data, or null if there is no such user.
+     */
     public final CompletableFuture<U> getUserDataAsync(@NotNull String name) {
-        return CompletableFuture.supplyAsync(() -> this.getUserData(name));
+        U user = this.getUserLoaded(name);
+        if (user != null) return CompletableFuture.completedFuture(user);
+
+        return this.load(this.loadingNames, name.toLowerCase(), () -> {
+            Player player = PlayerUtil.getPlayer(name);
+            if (player != null) return this.getUserData(player);
+
+            return this.loadUserData(name);
+        });
     }
 
+    /**
+     * Loads user data on the data handler's executor.
+     * Concurrent requests for the same user share the same future.
+     * @param uuid A user unique id to load data for.
+     * @return Future with the user data, or null if there is no such user.
+     */
     public final CompletableFuture<U> getUserDataAsync(@NotNull UUID uuid) {
-        return CompletableFuture.supplyAsync(() -> this.getUserData(uuid));
+        U user = this.getUserLoaded(uuid);
+        if (user != null) return CompletableFuture.completedFuture(user);
+
+        return this.load(this.loadingIds, uuid, () -> this.loadUserData(uuid));
+    }
+
+    @NotNull
+    private <K> CompletableFuture<U> load(@NotNull Map<K, CompletableFuture<U>> loading, @NotNull K key, @NotNull Supplier<U> loader) {
+        CompletableFuture<U> future = loading.get(key);
+        if (future != null) return future;
+
+        CompletableFuture<U> created = new CompletableFuture<>();
+        future = loading.putIfAbsent(key, created);
+        if (future != null) return future;
+
+        this.dataHolder.getData().getExecutor().execute(() -> {
+            try {
+                created.complete(loader.get());
+            }
+            catch (Throwable throwable) {
+                created.completeExceptionally(throwable);
+            }
+            finally {
+                loading.remove(key, created);
+            }
+        });
+        return created;
     }
 
     public void getUserDataAndPerform(@NotNull String name, Consumer<U> consumer) {
@@ -157,11 +272,11 @@ public abstract class AbstractUserManager<P extends NexPlugin<P>, U extends Abst
     }
 
     public final void unloadUser(@NotNull Player player) {
-        CompletableFuture.runAsync(() -> this.unloadUser(player.getUniqueId()));
+        CompletableFuture.runAsync(() -> this.unloadUser(player.getUniqueId()), this.dataHolder.getData().getExecutor());
     }
 
     public final void unloadUser(@NotNull UUID uuid) {
-        U user = this.getUsersLoadedMap().get(uuid);
+        U user = this.usersLoaded.get(uuid);
         if (user == null) return;
 
         this.unloadUser(user);
@@ -170,7 +285,7 @@ public abstract class AbstractUserManager<P extends NexPlugin<P>, U extends Abst
     public void unloadUser(@NotNull U user) {
         Player player = user.getPlayer();
         if (player != null) {
-            user.setName(player.getName());
+            this.rename(user, player.getName());
             user.setLastOnline(System.currentTimeMillis());
         }
         this.saveUser(user);
@@ -178,53 +293,105 @@ public abstract class AbstractUserManager<P extends NexPlugin<P>, U extends Abst
     }
 
     public void saveUser(@NotNull U user) {
-        CompletableFuture.runAsync(() -> this.dataHolder.getData().saveUser(user));
+        AbstractUserDataHandler<P, U> dataHandler = this.dataHolder.getData();
+        if (dataHandler.isSaveQueueEnabled()) {
+            dataHandler.getSaveQueue().enqueue(user);
+            return;
+        }
+        CompletableFuture.runAsync(() -> dataHandler.saveUser(user), dataHandler.getExecutor());
     }
 
     @NotNull
     public Set<U> getAllUsers() {
-        Map<UUID, U> users = new HashMap<>();
-        this.getUsersLoaded().forEach(user -> users.put(user.getId(), user));
-        this.dataHolder.getData().getUsers().forEach(user -> {
-            if (!users.containsKey(user.getId())) {
-                users.put(user.getId(), user);
+        Set<U> users = new HashSet<>();
+        this.forEachUser(users::add);
+        return users;
+    }
+
+    /**
+     * Passes all the users to the consumer: loaded ones first, then the rest of them streamed from the database.
+     * @param consumer Consumer for the users.
+     */
+    public void forEachUser(@NotNull Consumer<U> consumer) {
+        Set<UUID> loadedIds = new HashSet<>();
+        this.getUsersLoaded().forEach(user -> {
+            loadedIds.add(user.getId());
+            consumer.accept(user);
+        });
+        this.dataHolder.getData().forEachUser(user -> {
+            if (!loadedIds.contains(user.getId())) {
+                consumer.accept(user);
             }
         });
-        return new HashSet<>(users.values());
     }
 
-    @NotNull
-    public Map<UUID, U> getUsersLoadedMap() {
-        this.usersLoaded.values().removeIf(user -> {
-            if (user.isCacheExpired()) {
-                user.onUnload();
-                //this.plugin.debug("Cache expired: " + user.getName());
-                return true;
-            }
-            return false;
+    /**
+     * Removes users with expired cache time.
+     * Called periodically by the cache sweep task (off the main thread), so read methods are plain map lookups.
+     * Only users with reached deadlines are visited, using a timing wheel.
+     */
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        this.evictionWheel.advance(now, user -> {
+            // User could be cached again with a new deadline or permanently.
+            if (user.isCacheExpired() && user.getCachedUntil() <= now) this.evict(user);
         });
+    }
+
+    private void evict(@NotNull U user) {
+        if (!this.usersLoaded.remove(user.getId(), user)) return;
 
+        this.namesLoaded.remove(user.getName().toLowerCase(), user.getId());
+        this.evictions.incrementAndGet();
+        user.onUnload();
+        //this.plugin.debug("Cache expired: " + user.getName());
+    }
+
+    /**
+     * @return Total amount of users removed from the cache due to expiration.
+     */
+    public long getEvictionCount() {
+        return this.evictions.get();
+    }
+
+    /**
+     * @return Amount of temporary cached users waiting for expiration check.
+     */
+    public int getScheduledEvictionCount() {
+        return this.evictionWheel.size();
+    }
+
+    /**
+     * Returns map of cached users.
+     * Use cache methods of this manager to add users, so the name index stays up to date.
+     * @return Map of cached users by their UUIDs.
+     */
+    @NotNull
+    public Map<UUID, U> getUsersLoadedMap() {
         return this.usersLoaded;
     }
 
     @NotNull
     public Collection<U> getUsersLoaded() {
-        return new HashSet<>(this.getUsersLoadedMap().values());
+        return new HashSet<>(this.usersLoaded.values());
     }
 
     @Nullable
     public U getUserLoaded(@NotNull UUID uuid) {
-        return this.getUsersLoadedMap().get(uuid);
+        return this.usersLoaded.get(uuid);
     }
 
     @Nullable
     public U getUserLoaded(@NotNull String name) {
-        return this.getUsersLoaded().stream().filter(user -> user.getName().equalsIgnoreCase(name))
-                   .findFirst().orElse(null);
+        UUID uuid = this.namesLoaded.get(name.toLowerCase());
+        if (uuid == null) return null;
+
+        U user = this.getUserLoaded(uuid);
+        return user != null && user.getName().equalsIgnoreCase(name) ? user : null;
     }
 
     public boolean isUserLoaded(@NotNull Player player) {
-        return this.getUsersLoadedMap().containsKey(player.getUniqueId());
+        return this.getUserLoaded(player.getUniqueId()) != null;
     }
 
     public boolean isUserExists(@NotNull String name) {
@@ -238,6 +405,7 @@ public abstract class AbstractUserManager<P extends NexPlugin<P>, U extends Abst
     public void cacheTemporary(@NotNull U user) {
         user.setCachedUntil(System.currentTimeMillis() + EngineConfig.USER_CACHE_LIFETIME.get() * 1000L);
         this.cache(user);
+        this.evictionWheel.schedule(user, user.getCachedUntil());
     }
 
     public void cachePermanent(@NotNull U user) {
@@ -246,7 +414,22 @@ public abstract class AbstractUserManager<P extends NexPlugin<P>, U extends Abst
     }
 
     private void cache(@NotNull U user) {
-        this.getUsersLoadedMap().putIfAbsent(user.getId(), user);
+        if (this.usersLoaded.putIfAbsent(user.getId(), user) == null) {
+            this.namesLoaded.put(user.getName().toLowerCase(), user.getId());
+        }
+    }
+
+    private void rename(@NotNull U user, @NotNull String name) {
+        String oldName = user.getName();
+        if (oldName.equals(name)) return;
+
+        user.setName(name);
+        if (this.usersLoaded.get(user.getId()) == user) {
+            this.namesLoaded.remove(oldName.toLowerCase(), user.getId());
+            this.namesLoaded.put(name.toLowerCase(), user.getId());
+        }
+        // Otherwise lookups by the new name would be answered as absent by the name cache or filter.
+        this.dataHolder.getData().cacheNameAndId(user.getId(), name);
     }
 
     class PlayerListener extends AbstractListener<P> {
@@ -260,15 +443,23 @@ public abstract class AbstractUserManager<P extends NexPlugin<P>, U extends Abst
             if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) return;
 
             UUID uuid = event.getUniqueId();
-            U user;
-            if (!dataHolder.getData().isUserExists(uuid)) {
-                user = createData(uuid, event.getName());
-                user.setRecentlyCreated(true);
-                cache(user);
-                dataHolder.getData().addUser(user);
-                plugin.info("Created new user data for: '" + uuid + "'");
-                return;
-            } else {
+            AbstractUserDataHandler<P, U> dataHandler = dataHolder.getData();
+
+            // Skip database lookup when cached IDs or existence filter tell that there is no such user.
+            U user = null;
+            if (!dataHandler.isUserSurelyAbsent(uuid)) {
+                user = getUserData(uuid);
+            }
+
+            if (user == null) {
+                U created = createData(uuid, event.getName());
+                if (dataHandler.addUserIfAbsent(created)) {
+                    created.setRecentlyCreated(true);
+                    cache(created);
+                    plugin.info("Created new user data for: '" + uuid + "'");
+                    return;
+                }
+                // Record was created meanwhile (by another server), or insert failed.
                 user = getUserData(uuid);
             }
 
@@ -0,0 +1,167 @@
+package t.me.p1azmer.engine.api.data;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import t.me.p1azmer.engine.NexPlugin;
+import t.me.p1azmer.engine.api.data.sql.SQLColumn;
+import t.me.p1azmer.engine.api.data.sql.SQLCondition;
+import t.me.p1azmer.engine.api.data.sql.column.ColumnType;
+
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Removes outdated user records in background.
+ * Records are scanned by ranges of their primary key and removed in small batches with a pause between them,
+ * so the table is never locked for long. Name and UUID caches of the data handler are updated for each batch,
+ * and existence filters are built again once the job is done.
+ * Records of the currently loaded users are kept.
+ */
+public class UserPurgeJob<P extends NexPlugin<P>, U extends AbstractUser<P>> implements Runnable {
+
+    private static final SQLColumn COLUMN_ID = SQLColumn.of("id", ColumnType.LONG);
+    private static final int       LOG_EVERY = 20;
+
+    private final AbstractUserDataHandler<P, U> dataHandler;
+    private final String                        table;
+    private final long                          deadline;
+    private final int                           batchSize;
+    private final long                          batchPause;
+    private final AtomicBoolean                 cancelled;
+
+    private volatile boolean running;
+    private volatile long    maxId;
+    private volatile long    lastId;
+    private volatile int     deleted;
+
+    public UserPurgeJob(@NotNull AbstractUserDataHandler<P, U> dataHandler, @NotNull String table, long deadline) {
+        this.dataHandler = dataHandler;
+        this.table = table;
+        this.deadline = deadline;
+        this.batchSize = Math.max(1, dataHandler.getConfig().purgeBatchSize);
+        this.batchPause = Math.max(0L, dataHandler.getConfig().purgeBatchPause);
+        this.cancelled = new AtomicBoolean(false);
+    }
+
+    @Override
+    public void run() {
+        NexPlugin<P> plugin = this.dataHandler.plugin();
+        long started = System.currentTimeMillis();
+        this.running = true;
+
+        try {
+            this.maxId = this.selectMaxId();
+            int batches = 0;
+            while (!this.isCancelled() && this.lastId < this.maxId) {
+                this.purgeBatch();
+
+                if (++batches % LOG_EVERY == 0) {
+                    plugin.info("Purge progress: " + Math.round(this.getProgress() * 100D) + "% (" + this.deleted + " records removed).");
+                }
+                if (this.batchPause > 0L && this.lastId < this.maxId) {
+                    Thread.sleep(this.batchPause);
+                }
+            }
+        }
+        catch (InterruptedException exception) {
+            this.cancel();
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            // Removed users can not be taken out of the existence filters, so they are built again.
+            if (this.deleted > 0 && !this.isCancelled() && this.dataHandler.isExistenceFilterEnabled()) {
+                this.dataHandler.buildExistenceFilter();
+            }
+            this.running = false;
+        }
+
+        if (this.isCancelled()) {
+            plugin.warn("Purge was cancelled. Removed " + this.deleted + " records, the rest will be purged on the next start.");
+        }
+        else if (this.deleted > 0) {
+            plugin.info("Purged " + this.deleted + " outdated user records in " + (System.currentTimeMillis() - started) + " ms.");
+        }
+    }
+
+    private void purgeBatch() {
+        long fromId = this.lastId;
+        long toId = Math.min(this.maxId, fromId + this.batchSize);
+
+        List<SQLColumn> columns = Arrays.asList(COLUMN_ID, AbstractUserDataHandler.COLUMN_USER_ID, AbstractUserDataHandler.COLUMN_USER_NAME);
+        List<SQLCondition> conditions = Arrays.asList(
+            SQLCondition.smaller(AbstractUserDataHandler.COLUMN_USER_LAST_ONLINE.toValue(this.deadline)),
+            SQLCondition.greater(COLUMN_ID.toValue(fromId)),
+            SQLCondition.smaller(COLUMN_ID.toValue(toId + 1))
+        );
+
+        AbstractUserManager<P, U> userManager = this.dataHandler.dataHolder.getUserManager();
+        List<Record> records = this.dataHandler.load(this.table, resultSet -> {
+            try {
+                UUID uuid = UUID.fromString(resultSet.getString(AbstractUserDataHandler.COLUMN_USER_ID.getName()));
+                if (userManager.getUserLoaded(uuid) != null) return null;
+
+                return new Record(resultSet.getLong(COLUMN_ID.getName()), uuid, resultSet.getString(AbstractUserDataHandler.COLUMN_USER_NAME.getName()));
+            }
+            catch (SQLException | IllegalArgumentException exception) {
+                exception.printStackTrace();
+                return null;
+            }
+        }, columns, conditions, -1);
+
+        if (!records.isEmpty()) {
+            // Deadline is checked again, as user could join the server after the records were selected.
+            SQLCondition outdated = SQLCondition.smaller(AbstractUserDataHandler.COLUMN_USER_LAST_ONLINE.toValue(this.deadline));
+            List<List<SQLCondition>> deletes = new ArrayList<>(records.size());
+            records.forEach(record -> deletes.add(Arrays.asList(SQLCondition.equal(COLUMN_ID.toValue(record.id())), outdated)));
+
+            int[] counts = this.dataHandler.getStorage().deleteBatch(this.table, deletes);
+            if (counts == null) {
+                this.cancel();
+                return;
+            }
+
+            // Only the records that were really deleted are counted and taken out of the caches.
+            for (int index = 0; index < records.size() && index < counts.length; index++) {
+                if (counts[index] <= 0) continue;
+
+                Record record = records.get(index);
+                this.dataHandler.uncacheNameAndId(record.uuid(), record.name());
+                this.deleted++;
+            }
+        }
+        this.lastId = toId;
+    }
+
+    private long selectMaxId() {
+        return this.dataHandler.getStorage().max(this.table, COLUMN_ID);
+    }
+
+    public void cancel() {
+        this.cancelled.set(true);
+    }
+
+    public boolean isCancelled() {
+        return this.cancelled.get();
+    }
+
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    public int getDeleted() {
+        return this.deleted;
+    }
+
+    /**
+     * @return Purge progress from 0.0 to 1.0.
+     */
+    public double getProgress() {
+        long max = this.maxId;
+        return max <= 0L ? 1D : Math.min(1D, this.lastId / (double) max);
+    }
+
+    private record Record(long id, @NotNull UUID uuid, @Nullable String name) {
+
+    }
+}
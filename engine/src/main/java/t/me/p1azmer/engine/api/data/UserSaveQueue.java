@@ -0,0 +1,101 @@
+package t.me.p1azmer.engine.api.data;
+
+import org.jetbrains.annotations.NotNull;
+import t.me.p1azmer.engine.NexPlugin;
+import t.me.p1azmer.engine.api.data.task.DataSaveQueueTask;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Write-behind queue for user data saves.
+ * Users are coalesced by their UUID, so multiple save requests for the same user
+ * between two flushes result in a single database write.
+ * Queued users are written in JDBC batches within one transaction per flush.
+ */
+public class UserSaveQueue<P extends NexPlugin<P>, U extends AbstractUser<P>> {
+
+    private final AbstractUserDataHandler<P, U> dataHandler;
+    private final Map<UUID, U>                  pending;
+    private final AtomicBoolean                 flushScheduled;
+    private final Object                        flushLock;
+    private final int                           batchSize;
+
+    private DataSaveQueueTask<P> flushTask;
+
+    public UserSaveQueue(@NotNull AbstractUserDataHandler<P, U> dataHandler) {
+        this.dataHandler = dataHandler;
+        this.pending = new ConcurrentHashMap<>();
+        this.flushScheduled = new AtomicBoolean(false);
+        this.flushLock = new Object();
+        this.batchSize = Math.max(1, dataHandler.getConfig().saveQueueBatchSize);
+    }
+
+    public void start() {
+        if (this.flushTask != null) return;
+
+        this.flushTask = new DataSaveQueueTask<>(this.dataHandler.plugin(), this, this.dataHandler.getConfig().saveQueueFlushInterval);
+        this.flushTask.start();
+    }
+
+    public void stop() {
+        if (this.flushTask != null) {
+            this.flushTask.stop();
+            this.flushTask = null;
+        }
+    }
+
+    public void enqueue(@NotNull U user) {
+        this.pending.put(user.getId(), user);
+        this.checkBatchSize();
+    }
+
+    public void enqueue(@NotNull Collection<U> users) {
+        users.forEach(user -> this.pending.put(user.getId(), user));
+        this.checkBatchSize();
+    }
+
+    public boolean isQueued(@NotNull UUID uuid) {
+        return this.pending.containsKey(uuid);
+    }
+
+    public int size() {
+        return this.pending.size();
+    }
+
+    /**
+     * Writes all the queued users to the database in the current thread.
+     * Users that failed to save are put back into the queue unless they were queued again meanwhile.
+     */
+    public void flush() {
+        synchronized (this.flushLock) {
+            this.flushScheduled.set(false);
+            if (this.pending.isEmpty()) return;
+
+            List<U> users = new ArrayList<>(this.pending.size());
+            this.pending.forEach((uuid, user) -> {
+                if (this.pending.remove(uuid, user)) {
+                    users.add(user);
+                }
+            });
+            if (users.isEmpty()) return;
+
+            if (!this.dataHandler.saveUsers(users)) {
+                users.forEach(user -> this.pending.putIfAbsent(user.getId(), user));
+                this.dataHandler.plugin().error("Could not save " + users.size() + " queued users. They will be saved with the next flush.");
+            }
+        }
+    }
+
+    private void checkBatchSize() {
+        if (this.pending.size() < this.batchSize) return;
+        if (!this.flushScheduled.compareAndSet(false, true)) return;
+
+        this.dataHandler.getExecutor().execute(this::flush);
+    }
+}
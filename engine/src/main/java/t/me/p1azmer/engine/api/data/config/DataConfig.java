@@ -15,12 +15,40 @@ public class DataConfig {
     public String tablePrefix;
     public boolean purgeEnabled;
     public int purgePeriod;
+    public int purgeBatchSize;
+    public long purgeBatchPause;
+
+    public boolean saveQueueEnabled;
+    public int saveQueueBatchSize;
+    public int saveQueueFlushInterval;
+
+    public int executorThreads;
+    public int fetchSize;
+    public boolean executorVirtualThreads;
+
+    public int poolMaxSize;
+    public int poolMinIdle;
+    public long poolConnectionTimeout;
+    public long poolIdleTimeout;
+    public long poolMaxLifetime;
+    public long poolLeakDetectionThreshold;
+    public int poolPrepStmtCacheSize;
+    public int poolPrepStmtCacheSqlLimit;
+    public boolean mysqlRewriteBatchedStatements;
+    public boolean mysqlServerPrepStmts;
 
     public String mysqlUser;
     public String mysqlPassword;
     public String mysqlHost;
     public String mysqlBase;
     public String sqliteFilename;
+    public boolean sqliteWalMode;
+    public String sqliteSynchronous;
+    public int sqliteBusyTimeout;
+    public int sqliteReaders;
+    public String logFilename;
+    public boolean logFsync;
+    public int logCompactThreshold;
 
     public DataConfig(@NotNull JYML cfg) {
         String path = "Database.";
@@ -58,6 +86,37 @@ public class DataConfig {
                         "You can change the file's location by adding @path= at the beginning of the file.")
                 .read(cfg);
 
+        this.sqliteWalMode = JOption.create(path + "SQLite.WAL_Mode", true,
+                        "When enabled, SQLite database works in the write-ahead-log mode.",
+                        "In this mode reads are not blocked by writes, so user data can be loaded while a save is running.")
+                .read(cfg);
+        this.sqliteSynchronous = JOption.create(path + "SQLite.Synchronous", "NORMAL",
+                        "How often SQLite flushes data to the disk.",
+                        "NORMAL is safe in WAL mode and much faster than FULL.",
+                        "Available values: OFF, NORMAL, FULL, EXTRA")
+                .read(cfg);
+        this.sqliteBusyTimeout = JOption.create(path + "SQLite.Busy_Timeout", 5000,
+                        "Time (in milliseconds) to wait for a locked database before query fails.")
+                .read(cfg);
+        this.sqliteReaders = JOption.create(path + "SQLite.Read_Connections", 4,
+                        "Amount of read-only connections used in the WAL mode.",
+                        "All writes are still done through a single connection.")
+                .read(cfg);
+
+        this.logFilename = JOption.create(path + "Log.FileName", "data.kvlog",
+                        "File name for the append-only log storage (LOG database type).",
+                        "All data is kept in memory and every change is appended to this file.",
+                        "You can change the file's location by adding @path= at the beginning of the file.")
+                .read(cfg);
+        this.logFsync = JOption.create(path + "Log.Fsync", false,
+                        "When enabled, every write is forced to the disk before it completes.",
+                        "Safer on power loss, but much slower. Data is safe on server crashes either way.")
+                .read(cfg);
+        this.logCompactThreshold = JOption.create(path + "Log.Compact_Threshold", 10000,
+                        "Minimal amount of records in the log file before it can be compacted.",
+                        "Log is compacted when it contains twice more records than the actual data.")
+                .read(cfg);
+
         path = "Database.Purge.";
         this.purgeEnabled = JOption.create(path + "Enabled", false,
                         "Enables/Disables purge feature.",
@@ -68,6 +127,76 @@ public class DataConfig {
                         "This option may have different behavior depends on the plugin.",
                         "By default it's days of inactivity for the plugin users.")
                 .read(cfg);
+        this.purgeBatchSize = JOption.create(path + "Batch_Size", 500,
+                        "Amount of records checked and removed at once.",
+                        "Purge runs in background and removes records in small batches to not lock the whole table.")
+                .read(cfg);
+        this.purgeBatchPause = JOption.create(path + "Batch_Pause", 50L,
+                        "Pause (in milliseconds) between purge batches.")
+                .read(cfg);
+
+        path = "Database.Save_Queue.";
+        this.saveQueueEnabled = JOption.create(path + "Enabled", true,
+                        "When enabled, user data saves are collected in a queue and written in batches",
+                        "instead of one database query per user.")
+                .read(cfg);
+        this.saveQueueBatchSize = JOption.create(path + "Batch_Size", 100,
+                        "Queue will be flushed as soon as it contains this amount of users.")
+                .read(cfg);
+        this.saveQueueFlushInterval = JOption.create(path + "Flush_Interval", 5,
+                        "Defines how often (in seconds) queued user data will be written to the database.")
+                .read(cfg);
+
+        path = "Database.Executor.";
+        this.executorThreads = JOption.create(path + "Threads", 4,
+                        "Amount of threads used for database operations (user loading and saving).")
+                .read(cfg);
+        this.executorVirtualThreads = JOption.create(path + "Virtual_Threads", true,
+                        "When enabled and supported by Java (21+), virtual threads will be used for database operations.",
+                        "Amount of the threads is still limited by the Threads option.")
+                .read(cfg);
+
+        this.fetchSize = JOption.create("Database.Fetch_Size", 500,
+                        "Amount of rows fetched from the database at once when reading large tables.",
+                        "For MySQL, server-side cursors are used so whole tables are not loaded in memory.")
+                .read(cfg);
+
+        path = "Database.Pool.";
+        this.poolMaxSize = JOption.create(path + "Maximum_Size", 10,
+                        "Maximal amount of database connections kept by the plugin.",
+                        "Make sure it's not larger than amount of connections allowed by your database server.",
+                        "Ignored for SQLite.")
+                .read(cfg);
+        this.poolMinIdle = JOption.create(path + "Minimum_Idle", 2,
+                        "Minimal amount of idle connections kept ready in the pool.",
+                        "Set -1 to use the Maximum_Size value.")
+                .read(cfg);
+        this.poolConnectionTimeout = JOption.create(path + "Connection_Timeout", 10000L,
+                        "Maximal time (in milliseconds) to wait for a free connection from the pool.")
+                .read(cfg);
+        this.poolIdleTimeout = JOption.create(path + "Idle_Timeout", 600000L,
+                        "Time (in milliseconds) after which an idle connection is closed.")
+                .read(cfg);
+        this.poolMaxLifetime = JOption.create(path + "Max_Lifetime", 1800000L,
+                        "Maximal lifetime (in milliseconds) of a connection in the pool.",
+                        "Should be a few seconds shorter than the 'wait_timeout' of your database server.")
+                .read(cfg);
+        this.poolLeakDetectionThreshold = JOption.create(path + "Leak_Detection_Threshold", 0L,
+                        "Time (in milliseconds) a connection can be borrowed before a possible leak is logged.",
+                        "Set 0 to disable.")
+                .read(cfg);
+        this.poolPrepStmtCacheSize = JOption.create(path + "Prepared_Statements_Cache.Size", 250,
+                        "Amount of prepared statements cached per connection.")
+                .read(cfg);
+        this.poolPrepStmtCacheSqlLimit = JOption.create(path + "Prepared_Statements_Cache.SQL_Limit", 2048,
+                        "Maximal length of the SQL query to be cached.")
+                .read(cfg);
+        this.mysqlRewriteBatchedStatements = JOption.create(path + "MySQL.Rewrite_Batched_Statements", true,
+                        "When enabled, batched inserts and updates are sent to MySQL as multi-row queries.")
+                .read(cfg);
+        this.mysqlServerPrepStmts = JOption.create(path + "MySQL.Use_Server_Prepared_Statements", true,
+                        "When enabled, prepared statements are compiled once on the MySQL server side.")
+                .read(cfg);
 
         cfg.saveChanges();
     }
@@ -110,6 +239,37 @@ public class DataConfig {
                         "Actually it's a path to the file, so you can use directories here.")
                 .read(cfg);
 
+        this.sqliteWalMode = JOption.create(path + "SQLite.WAL_Mode", true,
+                        "When enabled, SQLite database works in the write-ahead-log mode.",
+                        "In this mode reads are not blocked by writes, so user data can be loaded while a save is running.")
+                .read(cfg);
+        this.sqliteSynchronous = JOption.create(path + "SQLite.Synchronous", "NORMAL",
+                        "How often SQLite flushes data to the disk.",
+                        "NORMAL is safe in WAL mode and much faster than FULL.",
+                        "Available values: OFF, NORMAL, FULL, EXTRA")
+                .read(cfg);
+        this.sqliteBusyTimeout = JOption.create(path + "SQLite.Busy_Timeout", 5000,
+                        "Time (in milliseconds) to wait for a locked database before query fails.")
+                .read(cfg);
+        this.sqliteReaders = JOption.create(path + "SQLite.Read_Connections", 4,
+                        "Amount of read-only connections used in the WAL mode.",
+                        "All writes are still done through a single connection.")
+                .read(cfg);
+
+        this.logFilename = JOption.create(path + "Log.FileName", "data.kvlog",
+                        "File name for the append-only log storage (LOG database type).",
+                        "All data is kept in memory and every change is appended to this file.",
+                        "You can change the file's location by adding @path= at the beginning of the file.")
+                .read(cfg);
+        this.logFsync = JOption.create(path + "Log.Fsync", false,
+                        "When enabled, every write is forced to the disk before it completes.",
+                        "Safer on power loss, but much slower. Data is safe on server crashes either way.")
+                .read(cfg);
+        this.logCompactThreshold = JOption.create(path + "Log.Compact_Threshold", 10000,
+                        "Minimal amount of records in the log file before it can be compacted.",
+                        "Log is compacted when it contains twice more records than the actual data.")
+                .read(cfg);
+
         path = "Database.Purge.";
         this.purgeEnabled = JOption.create(path + "Enabled", false,
                         "Enables/Disables purge feature.",
@@ -120,6 +280,76 @@ public class DataConfig {
                         "This option may have different behavior depends on the plugin.",
                         "By default it's days of inactivity for the plugin users.")
                 .read(cfg);
+        this.purgeBatchSize = JOption.create(path + "Batch_Size", 500,
+                        "Amount of records checked and removed at once.",
+                        "Purge runs in background and removes records in small batches to not lock the whole table.")
+                .read(cfg);
+        this.purgeBatchPause = JOption.create(path + "Batch_Pause", 50L,
+                        "Pause (in milliseconds) between purge batches.")
+                .read(cfg);
+
+        path = "Database.Save_Queue.";
+        this.saveQueueEnabled = JOption.create(path + "Enabled", true,
+                        "When enabled, user data saves are collected in a queue and written in batches",
+                        "instead of one database query per user.")
+                .read(cfg);
+        this.saveQueueBatchSize = JOption.create(path + "Batch_Size", 100,
+                        "Queue will be flushed as soon as it contains this amount of users.")
+                .read(cfg);
+        this.saveQueueFlushInterval = JOption.create(path + "Flush_Interval", 5,
+                        "Defines how often (in seconds) queued user data will be written to the database.")
+                .read(cfg);
+
+        path = "Database.Executor.";
+        this.executorThreads = JOption.create(path + "Threads", 4,
+                        "Amount of threads used for database operations (user loading and saving).")
+                .read(cfg);
+        this.executorVirtualThreads = JOption.create(path + "Virtual_Threads", true,
+                        "When enabled and supported by Java (21+), virtual threads will be used for database operations.",
+                        "Amount of the threads is still limited by the Threads option.")
+                .read(cfg);
+
+        this.fetchSize = JOption.create("Database.Fetch_Size", 500,
+                        "Amount of rows fetched from the database at once when reading large tables.",
+                        "For MySQL, server-side cursors are used so whole tables are not loaded in memory.")
+                .read(cfg);
+
+        path = "Database.Pool.";
+        this.poolMaxSize = JOption.create(path + "Maximum_Size", 10,
+                        "Maximal amount of database connections kept by the plugin.",
+                        "Make sure it's not larger than amount of connections allowed by your database server.",
+                        "Ignored for SQLite.")
+                .read(cfg);
+        this.poolMinIdle = JOption.create(path + "Minimum_Idle", 2,
+                        "Minimal amount of idle connections kept ready in the pool.",
+                        "Set -1 to use the Maximum_Size value.")
+                .read(cfg);
+        this.poolConnectionTimeout = JOption.create(path + "Connection_Timeout", 10000L,
+                        "Maximal time (in milliseconds) to wait for a free connection from the pool.")
+                .read(cfg);
+        this.poolIdleTimeout = JOption.create(path + "Idle_Timeout", 600000L,
+                        "Time (in milliseconds) after which an idle connection is closed.")
+                .read(cfg);
+        this.poolMaxLifetime = JOption.create(path + "Max_Lifetime", 1800000L,
+                        "Maximal lifetime (in milliseconds) of a connection in the pool.",
+                        "Should be a few seconds shorter than the 'wait_timeout' of your database server.")
+                .read(cfg);
+        this.poolLeakDetectionThreshold = JOption.create(path + "Leak_Detection_Threshold", 0L,
+                        "Time (in milliseconds) a connection can be borrowed before a possible leak is logged.",
+                        "Set 0 to disable.")
+                .read(cfg);
+        this.poolPrepStmtCacheSize = JOption.create(path + "Prepared_Statements_Cache.Size", 250,
+                        "Amount of prepared statements cached per connection.")
+                .read(cfg);
+        this.poolPrepStmtCacheSqlLimit = JOption.create(path + "Prepared_Statements_Cache.SQL_Limit", 2048,
+                        "Maximal length of the SQL query to be cached.")
+                .read(cfg);
+        this.mysqlRewriteBatchedStatements = JOption.create(path + "MySQL.Rewrite_Batched_Statements", true,
+                        "When enabled, batched inserts and updates are sent to MySQL as multi-row queries.")
+                .read(cfg);
+        this.mysqlServerPrepStmts = JOption.create(path + "MySQL.Use_Server_Prepared_Statements", true,
+                        "When enabled, prepared statements are compiled once on the MySQL server side.")
+                .read(cfg);
 
         cfg.saveChanges();
     }
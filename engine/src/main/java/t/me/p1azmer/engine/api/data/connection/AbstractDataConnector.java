@@ -5,6 +5,7 @@ import com.zaxxer.hikari.HikariDataSource;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import t.me.p1azmer.engine.NexPlugin;
+import t.me.p1azmer.engine.api.data.config.DataConfig;
 
 import java.sql.Connection;
 import java.sql.SQLException;
@@ -12,10 +13,11 @@ import java.util.UUID;
 
 public abstract class AbstractDataConnector {
 
-    protected final NexPlugin<?> plugin;
-    protected final String       url;
-    protected final HikariConfig config;
+    protected final NexPlugin<?>     plugin;
+    protected final String           url;
+    protected final HikariConfig     config;
     protected final HikariDataSource dataSource;
+    protected final DataPoolMetrics  metrics;
 
     public AbstractDataConnector(@NotNull NexPlugin<?> plugin, @NotNull String url) {
         this(plugin, url, null, null);
@@ -23,23 +25,58 @@ public abstract class AbstractDataConnector {
 
     public AbstractDataConnector(@NotNull NexPlugin<?> plugin, @NotNull String url,
                                  @Nullable String userName, @Nullable String password) {
+        this(plugin, url, userName, password, null);
+    }
+
+    public AbstractDataConnector(@NotNull NexPlugin<?> plugin, @NotNull String url,
+                                 @Nullable String userName, @Nullable String password,
+                                 @Nullable DataConfig dataConfig) {
         this.plugin = plugin;
         this.url = url;
+        this.metrics = new DataPoolMetrics();
 
         this.config = new HikariConfig();
         this.config.setJdbcUrl(url);
         if (userName != null) this.config.setUsername(userName);
         if (password != null) this.config.setPassword(password);
-        this.config.addDataSourceProperty("cachePrepStmts", "true");
-        this.config.addDataSourceProperty("prepStmtCacheSize", "250");
-        this.config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
 
-        // SQLite don't need more than 1 active connection.
+        int stmtCacheSize = dataConfig == null ? 250 : dataConfig.poolPrepStmtCacheSize;
+        int stmtCacheLimit = dataConfig == null ? 2048 : dataConfig.poolPrepStmtCacheSqlLimit;
+        this.config.addDataSourceProperty("cachePrepStmts", String.valueOf(stmtCacheSize > 0));
+        this.config.addDataSourceProperty("prepStmtCacheSize", String.valueOf(Math.max(0, stmtCacheSize)));
+        this.config.addDataSourceProperty("prepStmtCacheSqlLimit", String.valueOf(Math.max(0, stmtCacheLimit)));
+
+        if (dataConfig != null) {
+            this.config.setConnectionTimeout(Math.max(250L, dataConfig.poolConnectionTimeout));
+            this.config.setIdleTimeout(Math.max(0L, dataConfig.poolIdleTimeout));
+            this.config.setMaxLifetime(Math.max(0L, dataConfig.poolMaxLifetime));
+            if (dataConfig.poolLeakDetectionThreshold > 0L) {
+                this.config.setLeakDetectionThreshold(dataConfig.poolLeakDetectionThreshold);
+            }
+        }
+
+        // SQLite allows only one writer at a time, reads are handled by the connector itself.
         if (this instanceof ConnectorSQLite) {
             this.config.setMaximumPoolSize(1);
         }
+        else if (dataConfig != null) {
+            int maxSize = Math.max(1, dataConfig.poolMaxSize);
+            this.config.setMaximumPoolSize(maxSize);
+            this.config.setMinimumIdle(dataConfig.poolMinIdle < 0 ? maxSize : Math.min(maxSize, dataConfig.poolMinIdle));
+        }
+        this.configure(this.config, dataConfig);
+
+        this.config.setMetricsTrackerFactory(this.metrics);
         this.config.setPoolName(plugin.getName() + "-" + UUID.randomUUID().toString().substring(3, 5));
         this.dataSource = new HikariDataSource(this.config);
+        this.metrics.setPool(this.dataSource.getHikariPoolMXBean(), this.config.getMaximumPoolSize());
+    }
+
+    /**
+     * Applies driver specific settings to the pool config before the pool is created.
+     */
+    protected void configure(@NotNull HikariConfig config, @Nullable DataConfig dataConfig) {
+
     }
 
     public void close() {
@@ -50,4 +87,25 @@ public abstract class AbstractDataConnector {
     public final Connection getConnection() throws SQLException {
         return this.dataSource.getConnection();
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns connection for the read-only queries. By default it's the same pool as for writes.
+     */
+    @NotNull
+    public Connection getReadConnection() throws SQLException {
+        return this.getConnection();
+    }
+
+    @NotNull
+    public DataPoolMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Returns metrics of the separate read-only pool, or null if reads are served by the main pool.
+     */
+    @Nullable
+    public DataPoolMetrics getReadMetrics() {
+        return null;
+    }
+}
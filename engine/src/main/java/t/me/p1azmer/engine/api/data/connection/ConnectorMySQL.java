@@ -1,18 +1,40 @@
 package t.me.p1azmer.engine.api.data.connection;
 
+import com.zaxxer.hikari.HikariConfig;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import t.me.p1azmer.engine.NexPlugin;
 import t.me.p1azmer.engine.api.data.config.DataConfig;
 
 public class ConnectorMySQL extends AbstractDataConnector {
 
     public ConnectorMySQL(@NotNull NexPlugin<?> plugin, @NotNull DataConfig config) {
-        this(plugin, config.mysqlHost, config.mysqlBase, config.mysqlUser, config.mysqlPassword);
+        super(plugin, createURL(config.mysqlHost, config.mysqlBase), config.mysqlUser, config.mysqlPassword, config);
     }
 
     public ConnectorMySQL(@NotNull NexPlugin<?> plugin,
                           @NotNull String host, @NotNull String base,
                           @NotNull String userName, @NotNull String password) {
-        super(plugin, "jdbc:mysql://" + host + "/" + base + "?allowPublicKeyRetrieval=true&useSSL=false", userName, password);
+        super(plugin, createURL(host, base), userName, password);
     }
-}
\ No newline at end of file
+
+    @NotNull
+    private static String createURL(@NotNull String host, @NotNull String base) {
+        // Affected rows instead of found rows, so insert-only upserts report 0 for the existing rows.
+        return "jdbc:mysql://" + host + "/" + base + "?allowPublicKeyRetrieval=true&useSSL=false&useCursorFetch=true&useAffectedRows=true";
+    }
+
+    @Override
+    protected void configure(@NotNull HikariConfig config, @Nullable DataConfig dataConfig) {
+        boolean rewriteBatched = dataConfig == null || dataConfig.mysqlRewriteBatchedStatements;
+        boolean serverPrepStmts = dataConfig == null || dataConfig.mysqlServerPrepStmts;
+
+        config.addDataSourceProperty("rewriteBatchedStatements", String.valueOf(rewriteBatched));
+        config.addDataSourceProperty("useServerPrepStmts", String.valueOf(serverPrepStmts));
+        config.addDataSourceProperty("cacheServerConfiguration", "true");
+        config.addDataSourceProperty("cacheResultSetMetadata", "true");
+        config.addDataSourceProperty("useLocalSessionState", "true");
+        config.addDataSourceProperty("elideSetAutoCommits", "true");
+        config.addDataSourceProperty("maintainTimeStats", "false");
+    }
+}
@@ -1,17 +1,112 @@
 package t.me.p1azmer.engine.api.data.connection;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import t.me.p1azmer.engine.NexPlugin;
 import t.me.p1azmer.engine.api.data.config.DataConfig;
 import t.me.p1azmer.engine.utils.FileUtil;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Set;
+
+/**
+ * SQLite connector with a single writer connection.
+ * In the WAL mode read-only queries are served by a separate pool of connections,
+ * so they are not blocked by the writes in progress.
+ */
 public class ConnectorSQLite extends AbstractDataConnector {
 
+    private static final Set<String> SYNCHRONOUS_MODES = Set.of("OFF", "NORMAL", "FULL", "EXTRA");
+
+    private final HikariDataSource readDataSource;
+    private final DataPoolMetrics  readMetrics;
+
     public ConnectorSQLite(@NotNull NexPlugin<?> plugin, @NotNull DataConfig config) {
-        this(plugin, config.sqliteFilename.startsWith("@path=") ? FileUtil.relativize(config.sqliteFilename.replace("@path=", "")) : plugin.getDataFolder().getAbsolutePath() + "/" + config.sqliteFilename);
+        super(plugin, "jdbc:sqlite:" + getFilePath(plugin, config), null, null, config);
+
+        this.readMetrics = new DataPoolMetrics();
+        this.readDataSource = config.sqliteWalMode && config.sqliteReaders > 0 ? this.createReadPool(config) : null;
     }
 
     public ConnectorSQLite(@NotNull NexPlugin<?> plugin, @NotNull String filePath) {
         super(plugin, "jdbc:sqlite:" + filePath);
+        this.readMetrics = new DataPoolMetrics();
+        this.readDataSource = null;
+    }
+
+    @NotNull
+    private static String getFilePath(@NotNull NexPlugin<?> plugin, @NotNull DataConfig config) {
+        String fileName = config.sqliteFilename;
+        if (fileName.startsWith("@path=")) {
+            return FileUtil.relativize(fileName.replace("@path=", ""));
+        }
+        return plugin.getDataFolder().getAbsolutePath() + "/" + fileName;
+    }
+
+    @NotNull
+    private static String getSynchronous(@NotNull DataConfig config) {
+        String mode = config.sqliteSynchronous.toUpperCase();
+        return SYNCHRONOUS_MODES.contains(mode) ? mode : "NORMAL";
+    }
+
+    @Override
+    protected void configure(@NotNull HikariConfig config, @Nullable DataConfig dataConfig) {
+        if (dataConfig == null) return;
+
+        // Pragmas are applied by the driver for every new connection.
+        if (dataConfig.sqliteWalMode) {
+            config.addDataSourceProperty("journal_mode", "WAL");
+        }
+        config.addDataSourceProperty("synchronous", getSynchronous(dataConfig));
+        config.addDataSourceProperty("busy_timeout", String.valueOf(Math.max(0, dataConfig.sqliteBusyTimeout)));
+    }
+
+    @NotNull
+    private HikariDataSource createReadPool(@NotNull DataConfig dataConfig) {
+        HikariConfig readConfig = new HikariConfig();
+        readConfig.setJdbcUrl(this.url);
+        readConfig.setMaximumPoolSize(dataConfig.sqliteReaders);
+        readConfig.setMinimumIdle(1);
+        readConfig.setConnectionTimeout(this.config.getConnectionTimeout());
+        readConfig.setIdleTimeout(this.config.getIdleTimeout());
+        readConfig.setMaxLifetime(this.config.getMaxLifetime());
+        readConfig.addDataSourceProperty("synchronous", getSynchronous(dataConfig));
+        readConfig.addDataSourceProperty("busy_timeout", String.valueOf(Math.max(0, dataConfig.sqliteBusyTimeout)));
+        readConfig.setConnectionInitSql("PRAGMA query_only = true");
+        readConfig.setPoolName(this.config.getPoolName() + "-Read");
+        readConfig.setMetricsTrackerFactory(this.readMetrics);
+
+        HikariDataSource dataSource = new HikariDataSource(readConfig);
+        this.readMetrics.setPool(dataSource.getHikariPoolMXBean(), readConfig.getMaximumPoolSize());
+        return dataSource;
+    }
+
+    @Override
+    @NotNull
+    public Connection getReadConnection() throws SQLException {
+        if (this.readDataSource == null) return this.getConnection();
+
+        return this.readDataSource.getConnection();
+    }
+
+    @Override
+    @Nullable
+    public DataPoolMetrics getReadMetrics() {
+        return this.readDataSource == null ? null : this.readMetrics;
+    }
+
+    public boolean hasReadPool() {
+        return this.readDataSource != null;
+    }
+
+    @Override
+    public void close() {
+        if (this.readDataSource != null) {
+            this.readDataSource.close();
+        }
+        super.close();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,149 @@
+package t.me.p1azmer.engine.api.data.connection;
+
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects connection pool statistics: how long threads wait for a connection,
+ * how long connections are used and how many times pool was exhausted.
+ */
+public class DataPoolMetrics implements MetricsTrackerFactory, IMetricsTracker {
+
+    private final LongAdder  acquireCount;
+    private final LongAdder  acquireNanos;
+    private final AtomicLong acquireMaxNanos;
+    private final LongAdder  usageCount;
+    private final LongAdder  usageMillis;
+    private final AtomicLong usageMaxMillis;
+    private final LongAdder  timeouts;
+    private final LongAdder  created;
+
+    private HikariPoolMXBean poolBean;
+    private int              maxPoolSize;
+
+    public DataPoolMetrics() {
+        this.acquireCount = new LongAdder();
+        this.acquireNanos = new LongAdder();
+        this.acquireMaxNanos = new AtomicLong();
+        this.usageCount = new LongAdder();
+        this.usageMillis = new LongAdder();
+        this.usageMaxMillis = new AtomicLong();
+        this.timeouts = new LongAdder();
+        this.created = new LongAdder();
+    }
+
+    void setPool(@Nullable HikariPoolMXBean poolBean, int maxPoolSize) {
+        this.poolBean = poolBean;
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        return this;
+    }
+
+    @Override
+    public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+        this.created.increment();
+    }
+
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        this.acquireCount.increment();
+        this.acquireNanos.add(elapsedAcquiredNanos);
+        this.acquireMaxNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+    }
+
+    @Override
+    public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+        this.usageCount.increment();
+        this.usageMillis.add(elapsedBorrowedMillis);
+        this.usageMaxMillis.accumulateAndGet(elapsedBorrowedMillis, Math::max);
+    }
+
+    @Override
+    public void recordConnectionTimeout() {
+        this.timeouts.increment();
+    }
+
+    public void reset() {
+        this.acquireCount.reset();
+        this.acquireNanos.reset();
+        this.acquireMaxNanos.set(0L);
+        this.usageCount.reset();
+        this.usageMillis.reset();
+        this.usageMaxMillis.set(0L);
+        this.timeouts.reset();
+        this.created.reset();
+    }
+
+    public int getActiveConnections() {
+        return this.poolBean == null ? 0 : this.poolBean.getActiveConnections();
+    }
+
+    public int getIdleConnections() {
+        return this.poolBean == null ? 0 : this.poolBean.getIdleConnections();
+    }
+
+    public int getTotalConnections() {
+        return this.poolBean == null ? 0 : this.poolBean.getTotalConnections();
+    }
+
+    public int getAwaitingThreads() {
+        return this.poolBean == null ? 0 : this.poolBean.getThreadsAwaitingConnection();
+    }
+
+    public int getMaxPoolSize() {
+        return this.maxPoolSize;
+    }
+
+    public long getAcquireCount() {
+        return this.acquireCount.sum();
+    }
+
+    public double getAcquireAverageMillis() {
+        long count = this.acquireCount.sum();
+        return count == 0 ? 0D : this.acquireNanos.sum() / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public double getAcquireMaxMillis() {
+        return this.acquireMaxNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public double getUsageAverageMillis() {
+        long count = this.usageCount.sum();
+        return count == 0 ? 0D : this.usageMillis.sum() / (double) count;
+    }
+
+    public long getUsageMaxMillis() {
+        return this.usageMaxMillis.get();
+    }
+
+    public long getTimeouts() {
+        return this.timeouts.sum();
+    }
+
+    public long getCreatedConnections() {
+        return this.created.sum();
+    }
+
+    @Override
+    @NotNull
+    public String toString() {
+        return "DataPoolMetrics [active=" + this.getActiveConnections() +
+            ", idle=" + this.getIdleConnections() +
+            ", total=" + this.getTotalConnections() + "/" + this.getMaxPoolSize() +
+            ", awaiting=" + this.getAwaitingThreads() +
+            ", acquireAvg=" + this.getAcquireAverageMillis() +
+            ", acquireMax=" + this.getAcquireMaxMillis() +
+            ", timeouts=" + this.getTimeouts() + "]";
+    }
+}
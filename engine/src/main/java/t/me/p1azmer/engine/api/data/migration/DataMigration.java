@@ -0,0 +1,78 @@
+package t.me.p1azmer.engine.api.data.migration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import t.me.p1azmer.engine.api.data.AbstractDataHandler;
+
+/**
+ * Single versioned change of the database schema.
+ * Each migration is applied once and recorded in the schema table of its data handler.
+ */
+public class DataMigration {
+
+    private final int    version;
+    private final String description;
+    private final Action action;
+
+    private Check check;
+
+    public DataMigration(int version, @NotNull String description, @NotNull Action action) {
+        if (version <= 0) throw new IllegalArgumentException("Migration version must be positive!");
+
+        this.version = version;
+        this.description = description;
+        this.action = action;
+    }
+
+    @NotNull
+    public static DataMigration of(int version, @NotNull String description, @NotNull Action action) {
+        return new DataMigration(version, description, action);
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    @NotNull
+    public String getDescription() {
+        return description;
+    }
+
+    @NotNull
+    public Action getAction() {
+        return action;
+    }
+
+    /**
+     * Sets the post-condition of the migration, that is verified before its version is recorded.
+     * Storage helpers report SQL errors without throwing them, so this is the way to tell that they did their job,
+     * e.g. with {@link AbstractDataHandler#hasColumn}.
+     */
+    @NotNull
+    public DataMigration check(@NotNull Check check) {
+        this.check = check;
+        return this;
+    }
+
+    @Nullable
+    public Check getCheck() {
+        return check;
+    }
+
+    @Override
+    public String toString() {
+        return "DataMigration [version=" + this.version + ", description=" + this.description + "]";
+    }
+
+    @FunctionalInterface
+    public interface Action {
+
+        void migrate(@NotNull AbstractDataHandler<?> dataHandler) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface Check {
+
+        boolean isApplied(@NotNull AbstractDataHandler<?> dataHandler) throws Exception;
+    }
+}
@@ -0,0 +1,133 @@
+package t.me.p1azmer.engine.api.data.migration;
+
+import org.jetbrains.annotations.NotNull;
+import t.me.p1azmer.engine.api.data.AbstractDataHandler;
+import t.me.p1azmer.engine.api.data.sql.SQLColumn;
+import t.me.p1azmer.engine.api.data.sql.SQLValue;
+import t.me.p1azmer.engine.api.data.sql.column.ColumnType;
+
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Applies versioned migrations of a data handler.
+ * Applied versions are stored in the '[prefix]_schema' table, so every migration runs only once,
+ * in ascending order of versions. Migration that failed stops the process and will be retried on the next start.
+ * Migration is treated as failed when its action throws, or when its {@link DataMigration.Check} is not passed.
+ * <br>
+ * Migrations should be idempotent when the database is shared by multiple servers that may start at the same time.
+ */
+public class DataMigrator {
+
+    public static final SQLColumn COLUMN_VERSION     = SQLColumn.of("version", ColumnType.INTEGER);
+    public static final SQLColumn COLUMN_DESCRIPTION = SQLColumn.of("description", ColumnType.STRING);
+    public static final SQLColumn COLUMN_APPLIED_AT  = SQLColumn.of("applied_at", ColumnType.LONG);
+
+    private final AbstractDataHandler<?> dataHandler;
+    private final String                 table;
+
+    public DataMigrator(@NotNull AbstractDataHandler<?> dataHandler) {
+        this.dataHandler = dataHandler;
+        this.table = dataHandler.getTablePrefix() + "_schema";
+    }
+
+    @NotNull
+    public String getTable() {
+        return table;
+    }
+
+    @NotNull
+    public Set<Integer> getAppliedVersions() {
+        if (!this.dataHandler.hasTable(this.table)) return Collections.emptySet();
+
+        return new HashSet<>(this.dataHandler.load(this.table, resultSet -> {
+            try {
+                return resultSet.getInt(COLUMN_VERSION.getName());
+            }
+            catch (SQLException exception) {
+                exception.printStackTrace();
+                return null;
+            }
+        }, Collections.singletonList(COLUMN_VERSION), Collections.emptyList(), -1));
+    }
+
+    public int getCurrentVersion() {
+        return this.getAppliedVersions().stream().mapToInt(Integer::intValue).max().orElse(0);
+    }
+
+    /**
+     * Applies all the migrations that were not applied yet.
+     *
+     * @param migrations Migrations to apply, in any order.
+     * @return Amount of the applied migrations.
+     */
+    public int migrate(@NotNull Collection<DataMigration> migrations) {
+        if (migrations.isEmpty()) return 0;
+
+        this.dataHandler.createTable(this.table, Arrays.asList(COLUMN_VERSION, COLUMN_DESCRIPTION, COLUMN_APPLIED_AT));
+        // Servers that start at the same time must not record the same version twice.
+        boolean unique = this.dataHandler.getStorage().createIndex(this.table, this.table + "_version_index", Collections.singletonList(COLUMN_VERSION), true);
+
+        Set<Integer> applied = this.getAppliedVersions();
+        List<DataMigration> pending = migrations.stream()
+            .filter(migration -> !applied.contains(migration.getVersion()))
+            .sorted(Comparator.comparingInt(DataMigration::getVersion))
+            .toList();
+
+        int count = 0;
+        int lastVersion = 0;
+        for (DataMigration migration : pending) {
+            if (migration.getVersion() == lastVersion) {
+                this.dataHandler.plugin().error("Duplicated schema migration version: " + migration);
+                break;
+            }
+            lastVersion = migration.getVersion();
+
+            try {
+                migration.getAction().migrate(this.dataHandler);
+
+                DataMigration.Check check = migration.getCheck();
+                if (check != null && !check.isApplied(this.dataHandler)) {
+                    throw new IllegalStateException("Post-condition of the migration is not met.");
+                }
+            }
+            catch (Exception exception) {
+                this.dataHandler.plugin().error("Could not apply schema migration " + migration + ". Remaining migrations are skipped.");
+                exception.printStackTrace();
+                break;
+            }
+
+            if (!this.record(migration, unique)) {
+                if (this.getAppliedVersions().contains(migration.getVersion())) {
+                    this.dataHandler.plugin().warn("Schema migration " + migration + " was recorded by another server meanwhile. Remaining migrations will be applied on the next start.");
+                }
+                else {
+                    this.dataHandler.plugin().error("Could not record schema migration " + migration + ". Remaining migrations are skipped.");
+                }
+                break;
+            }
+            this.dataHandler.plugin().info("Applied schema migration #" + migration.getVersion() + ": " + migration.getDescription());
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return True if version of the migration was recorded by this call.
+     */
+    private boolean record(@NotNull DataMigration migration, boolean unique) {
+        List<SQLValue> values = Arrays.asList(
+            COLUMN_VERSION.toValue(migration.getVersion()),
+            COLUMN_DESCRIPTION.toValue(migration.getDescription()),
+            COLUMN_APPLIED_AT.toValue(System.currentTimeMillis())
+        );
+
+        // Insert-only upsert tells if the version was recorded by someone else, but it needs the unique index.
+        if (unique) {
+            return this.dataHandler.getStorage().upsert(this.table, values, Collections.singletonList(COLUMN_VERSION), true) == 1;
+        }
+
+        this.dataHandler.insert(this.table, values);
+        return this.getAppliedVersions().contains(migration.getVersion());
+    }
+}
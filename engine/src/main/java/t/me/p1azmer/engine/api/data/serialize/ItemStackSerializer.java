@@ -1,24 +1,46 @@
 package t.me.p1azmer.engine.api.data.serialize;
 
-import com.google.gson.*;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import org.bukkit.inventory.ItemStack;
-import t.me.p1azmer.engine.utils.ItemUtil;
+import t.me.p1azmer.engine.utils.ItemNbt;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 
-public class ItemStackSerializer implements JsonSerializer<ItemStack>, JsonDeserializer<ItemStack> {
+public class ItemStackSerializer extends TypeAdapter<ItemStack> {
+
+    private static final String DATA = "data64";
 
     @Override
-    public JsonElement serialize(ItemStack item, Type type, JsonSerializationContext context) {
-        JsonObject object = new JsonObject();
-        object.addProperty("data64", ItemUtil.compress(item));
-        return object;
+    public void write(JsonWriter out, ItemStack item) throws IOException {
+        if (item == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        out.name(DATA).value(ItemNbt.compress(item));
+        out.endObject();
     }
 
     @Override
-    public ItemStack deserialize(JsonElement json, Type type, JsonDeserializationContext context) throws JsonParseException {
-        JsonObject object = json.getAsJsonObject();
-        return ItemUtil.decompress(object.get("data64").getAsString());
-    }
+    public ItemStack read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
 
-}
\ No newline at end of file
+        ItemStack item = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            if (DATA.equals(in.nextName()) && in.peek() == JsonToken.STRING) {
+                item = ItemNbt.decompress(in.nextString());
+            }
+            else in.skipValue();
+        }
+        in.endObject();
+        return item;
+    }
+}
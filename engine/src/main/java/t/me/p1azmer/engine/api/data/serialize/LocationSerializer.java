@@ -0,0 +1,66 @@
+package t.me.p1azmer.engine.api.data.serialize;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.io.IOException;
+
+public class LocationSerializer extends TypeAdapter<Location> {
+
+    @Override
+    public void write(JsonWriter out, Location location) throws IOException {
+        if (location == null) {
+            out.nullValue();
+            return;
+        }
+
+        World world = location.getWorld();
+        out.beginObject();
+        out.name("world").value(world == null ? null : world.getName());
+        out.name("x").value(location.getX());
+        out.name("y").value(location.getY());
+        out.name("z").value(location.getZ());
+        out.name("yaw").value(location.getYaw());
+        out.name("pitch").value(location.getPitch());
+        out.endObject();
+    }
+
+    @Override
+    public Location read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        String worldName = null;
+        double x = 0D, y = 0D, z = 0D;
+        float yaw = 0F, pitch = 0F;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "world" -> worldName = in.nextString();
+                case "x" -> x = in.nextDouble();
+                case "y" -> y = in.nextDouble();
+                case "z" -> z = in.nextDouble();
+                case "yaw" -> yaw = (float) in.nextDouble();
+                case "pitch" -> pitch = (float) in.nextDouble();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        World world = worldName == null ? null : Bukkit.getWorld(worldName);
+        return new Location(world, x, y, z, yaw, pitch);
+    }
+}
@@ -0,0 +1,93 @@
+package t.me.p1azmer.engine.api.data.serialize;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Writes maps with UUID keys as plain JSON objects, converting keys directly instead of
+ * going through the generic map adapter and the UUID type adapter for every key.
+ */
+public class UUIDMapAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> typeToken) {
+        Class<? super T> rawType = typeToken.getRawType();
+        if (!Map.class.isAssignableFrom(rawType)) return null;
+        if (!(typeToken.getType() instanceof ParameterizedType parameterizedType)) return null;
+
+        Type[] arguments = parameterizedType.getActualTypeArguments();
+        if (arguments.length != 2 || arguments[0] != UUID.class) return null;
+
+        Supplier<Map<UUID, Object>> constructor;
+        if (rawType.isAssignableFrom(LinkedHashMap.class)) {
+            constructor = LinkedHashMap::new;
+        }
+        else if (rawType.isAssignableFrom(ConcurrentHashMap.class)) {
+            constructor = ConcurrentHashMap::new;
+        }
+        else return null;
+
+        TypeAdapter<Object> valueAdapter = (TypeAdapter<Object>) gson.getAdapter(TypeToken.get(arguments[1]));
+        return (TypeAdapter<T>) new Adapter(valueAdapter, constructor).nullSafe();
+    }
+
+    private static class Adapter extends TypeAdapter<Map<UUID, Object>> {
+
+        private final TypeAdapter<Object>         valueAdapter;
+        private final Supplier<Map<UUID, Object>> constructor;
+
+        Adapter(TypeAdapter<Object> valueAdapter, Supplier<Map<UUID, Object>> constructor) {
+            this.valueAdapter = valueAdapter;
+            this.constructor = constructor;
+        }
+
+        @Override
+        public void write(JsonWriter out, Map<UUID, Object> map) throws IOException {
+            out.beginObject();
+            for (Map.Entry<UUID, Object> entry : map.entrySet()) {
+                if (entry.getKey() == null) continue;
+
+                out.name(entry.getKey().toString());
+                this.valueAdapter.write(out, entry.getValue());
+            }
+            out.endObject();
+        }
+
+        @Override
+        public Map<UUID, Object> read(JsonReader in) throws IOException {
+            Map<UUID, Object> map = this.constructor.get();
+            in.beginObject();
+            while (in.hasNext()) {
+                UUID uuid;
+                try {
+                    uuid = UUID.fromString(in.nextName());
+                }
+                catch (IllegalArgumentException exception) {
+                    in.skipValue();
+                    continue;
+                }
+
+                Object value = this.valueAdapter.read(in);
+                if (value != null) {
+                    map.put(uuid, value);
+                }
+            }
+            in.endObject();
+            return map;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package t.me.p1azmer.engine.api.data.serialize;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.bukkit.Color;
+import org.bukkit.Material;
+import org.bukkit.Particle;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.inventory.ItemStack;
+import t.me.p1azmer.engine.utils.ItemNbt;
+import t.me.p1azmer.engine.utils.StringUtil;
+import t.me.p1azmer.engine.utils.wrapper.UniParticle;
+
+import java.io.IOException;
+
+public class UniParticleSerializer extends TypeAdapter<UniParticle> {
+
+    @Override
+    public void write(JsonWriter out, UniParticle particle) throws IOException {
+        if (particle == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        out.name("name").value(particle.isEmpty() ? null : particle.getParticle().name());
+
+        Object data = particle.getData();
+        if (data instanceof BlockData blockData) {
+            out.name("material").value(blockData.getMaterial().name());
+        }
+        else if (data instanceof Particle.DustTransition dustTransition) {
+            out.name("color").value(toString(dustTransition.getColor()));
+            out.name("color_to").value(toString(dustTransition.getToColor()));
+            out.name("size").value(dustTransition.getSize());
+        }
+        else if (data instanceof Particle.DustOptions dustOptions) {
+            out.name("color").value(toString(dustOptions.getColor()));
+            out.name("size").value(dustOptions.getSize());
+        }
+        else if (data instanceof ItemStack item) {
+            out.name("item").value(ItemNbt.compress(item));
+        }
+        else if (data instanceof Number number) {
+            out.name("value").value(number);
+        }
+        out.endObject();
+    }
+
+    @Override
+    public UniParticle read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        String name = null, material = null, color = null, colorTo = null, item = null;
+        float size = 1F;
+        double value = 1D;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String key = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (key) {
+                case "name", "particle" -> name = in.nextString();
+                case "material" -> material = in.nextString();
+                case "color" -> color = in.nextString();
+                case "color_to" -> colorTo = in.nextString();
+                case "item" -> item = in.nextString();
+                case "size" -> size = (float) in.nextDouble();
+                case "value" -> value = in.nextDouble();
+                case "data" -> {
+                    // Data written by the reflective Gson serialization used before: numbers and dust options only.
+                    if (in.peek() == JsonToken.NUMBER) {
+                        value = in.nextDouble();
+                        continue;
+                    }
+                    if (in.peek() != JsonToken.BEGIN_OBJECT) {
+                        in.skipValue();
+                        continue;
+                    }
+                    in.beginObject();
+                    while (in.hasNext()) {
+                        String dataKey = in.nextName();
+                        if (in.peek() == JsonToken.NULL) {
+                            in.nextNull();
+                            continue;
+                        }
+                        switch (dataKey) {
+                            case "color" -> color = readLegacyColor(in);
+                            case "toColor" -> colorTo = readLegacyColor(in);
+                            case "size" -> size = (float) in.nextDouble();
+                            default -> in.skipValue();
+                        }
+                    }
+                    in.endObject();
+                }
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        Particle particle = name == null ? null : StringUtil.getEnum(name, Particle.class).orElse(null);
+        if (particle == null) return UniParticle.of(null);
+
+        Class<?> dataType = particle.getDataType();
+        Object data = null;
+        if (dataType == BlockData.class) {
+            Material type = material == null ? null : Material.getMaterial(material);
+            data = (type != null ? type : Material.STONE).createBlockData();
+        }
+        else if (dataType == Particle.DustOptions.class) {
+            data = new Particle.DustOptions(StringUtil.getColor(color == null ? "" : color), size);
+        }
+        else if (dataType == Particle.DustTransition.class) {
+            data = new Particle.DustTransition(StringUtil.getColor(color == null ? "" : color), StringUtil.getColor(colorTo == null ? "" : colorTo), size);
+        }
+        else if (dataType == ItemStack.class) {
+            ItemStack stack = item == null ? null : ItemNbt.decompress(item);
+            data = stack == null || stack.getType().isAir() ? new ItemStack(Material.STONE) : stack;
+        }
+        else if (dataType == Float.class) {
+            data = (float) value;
+        }
+        else if (dataType == Integer.class) {
+            data = (int) value;
+        }
+        else if (dataType != Void.class) return UniParticle.of(Particle.REDSTONE);
+
+        return UniParticle.of(particle, data);
+    }
+
+    private static String readLegacyColor(JsonReader in) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_OBJECT) {
+            in.skipValue();
+            return null;
+        }
+
+        int red = 0, green = 0, blue = 0;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                // Components are stored as signed bytes.
+                case "red" -> red = in.nextInt() & 0xFF;
+                case "green" -> green = in.nextInt() & 0xFF;
+                case "blue" -> blue = in.nextInt() & 0xFF;
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return red + "," + green + "," + blue;
+    }
+
+    private static String toString(Color color) {
+        return color.getRed() + "," + color.getGreen() + "," + color.getBlue();
+    }
+}
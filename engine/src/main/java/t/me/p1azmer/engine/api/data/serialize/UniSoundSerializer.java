@@ -0,0 +1,66 @@
+package t.me.p1azmer.engine.api.data.serialize;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.bukkit.Sound;
+import t.me.p1azmer.engine.utils.StringUtil;
+import t.me.p1azmer.engine.utils.wrapper.UniSound;
+
+import java.io.IOException;
+
+public class UniSoundSerializer extends TypeAdapter<UniSound> {
+
+    @Override
+    public void write(JsonWriter out, UniSound sound) throws IOException {
+        if (sound == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        out.name("name").value(sound.getSoundName());
+        out.name("volume").value(sound.getVolume());
+        out.name("pitch").value(sound.getPitch());
+        out.endObject();
+    }
+
+    @Override
+    public UniSound read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        String soundName = "";
+        String legacyType = null;
+        float volume = 0.8F;
+        float pitch = 1F;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String key = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (key) {
+                // 'soundName' and 'soundType' are written by the reflective Gson serialization used before.
+                case "name", "soundName" -> soundName = in.nextString();
+                case "soundType" -> legacyType = in.nextString();
+                case "volume" -> volume = (float) in.nextDouble();
+                case "pitch" -> pitch = (float) in.nextDouble();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        if (soundName.isEmpty() && legacyType != null) {
+            soundName = legacyType;
+        }
+
+        Sound soundType = StringUtil.getEnum(soundName, Sound.class).orElse(null);
+        return new UniSound(soundName, soundType, volume, pitch);
+    }
+}
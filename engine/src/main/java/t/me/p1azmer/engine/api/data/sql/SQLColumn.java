@@ -4,6 +4,8 @@ import org.jetbrains.annotations.NotNull;
 import t.me.p1azmer.engine.api.data.StorageType;
 import t.me.p1azmer.engine.api.data.sql.column.ColumnType;
 
+import java.util.Objects;
+
 public class SQLColumn {
 
     private final String     name;
@@ -59,6 +61,21 @@ public class SQLColumn {
 
     @NotNull
     public SQLValue toValue(@NotNull Object value) {
+        if (value instanceof Number || value instanceof Boolean || value instanceof byte[] || value instanceof String) {
+            return SQLValue.typed(this, value);
+        }
         return SQLValue.of(this, String.valueOf(value));
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SQLColumn other)) return false;
+        return this.length == other.length && this.name.equals(other.name) && this.type == other.type;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.name, this.type, this.length);
+    }
 }
\ No newline at end of file
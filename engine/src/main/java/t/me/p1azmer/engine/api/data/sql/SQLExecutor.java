@@ -12,6 +12,7 @@ public abstract class SQLExecutor<T> {
     protected static final String WHERE       = "WHERE";
     protected static final String INSERT_INTO = "INSERT INTO";
     protected static final String VALUES      = "VALUES";
+    protected static final String DELETE_FROM = "DELETE FROM";
 
     protected final String table;
 
@@ -1,23 +1,30 @@
 package t.me.p1azmer.engine.api.data.sql;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import t.me.p1azmer.engine.api.data.connection.AbstractDataConnector;
 
 import java.sql.*;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class SQLQueries {
 
     public static boolean hasTable(@NotNull AbstractDataConnector connector, @NotNull String table) {
-        try (Connection connection = connector.getConnection()) {
+        try (Connection connection = connector.getReadConnection()) {
 
-            boolean has;
             DatabaseMetaData metaData = connection.getMetaData();
-            ResultSet tables = metaData.getTables(null, null, table, null);
-            has = tables.next();
-            tables.close();
-            return has;
+            try (ResultSet tables = metaData.getTables(connection.getCatalog(), null, table, null)) {
+                while (tables.next()) {
+                    if (table.equalsIgnoreCase(tables.getString("TABLE_NAME"))) {
+                        return true;
+                    }
+                }
+            }
+            return false;
         }
         catch (SQLException e) {
             e.printStackTrace();
@@ -25,17 +32,37 @@ public class SQLQueries {
         }
     }
 
+    public static boolean hasIndex(@NotNull AbstractDataConnector connector, @NotNull String table, @NotNull String index) {
+        try (Connection connection = connector.getReadConnection();
+             ResultSet indexes = connection.getMetaData().getIndexInfo(connection.getCatalog(), null, table, false, true)) {
+
+            while (indexes.next()) {
+                if (index.equalsIgnoreCase(indexes.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Checks if the table has the specified column using the database metadata,
+     * so no rows of the table are read.
+     */
     public static boolean hasColumn(@NotNull AbstractDataConnector connector, @NotNull String table, @NotNull SQLColumn column) {
-        String sql = "SELECT * FROM " + table;
         String columnName = column.getName();
-        try (Connection connection = connector.getConnection();
-             Statement statement = connection.createStatement()) {
+        try (Connection connection = connector.getReadConnection();
+             ResultSet columns = connection.getMetaData().getColumns(connection.getCatalog(), null, table, null)) {
+
+            while (columns.next()) {
+                // Table name is a pattern where '_' matches any character.
+                if (!table.equalsIgnoreCase(columns.getString("TABLE_NAME"))) continue;
 
-            ResultSet resultSet = statement.executeQuery(sql);
-            ResultSetMetaData metaData = resultSet.getMetaData();
-            int columns = metaData.getColumnCount();
-            for (int index = 1; index <= columns; index++) {
-                if (columnName.equals(metaData.getColumnName(index))) {
+                if (columnName.equalsIgnoreCase(columns.getString("COLUMN_NAME"))) {
                     return true;
                 }
             }
@@ -77,6 +104,83 @@ public class SQLQueries {
         }
     }
 
+    public static void executeStatement(@NotNull AbstractDataConnector connector, @NotNull SQLStatementPlan plan,
+                                        @NotNull List<SQLValue> values, @NotNull List<SQLCondition> wheres) {
+        executeUpdate(connector, plan, values, wheres);
+    }
+
+    /**
+     * @return Amount of affected rows, or -1 if statement failed.
+     */
+    public static int executeUpdate(@NotNull AbstractDataConnector connector, @NotNull SQLStatementPlan plan,
+                                    @NotNull List<SQLValue> values, @NotNull List<SQLCondition> wheres) {
+
+        try (Connection connection = connector.getConnection();
+             PreparedStatement statement = connection.prepareStatement(plan.getSQL())) {
+
+            plan.bind(statement, values, wheres);
+            return statement.executeUpdate();
+        }
+        catch (SQLException e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    /**
+     * Executes all the statements in a single transaction using JDBC batches.
+     * Each key is a statement plan and each value is a list of parameter rows to bind for it.
+     *
+     * @param connector Data connector.
+     * @param batches   Statement plans with their parameter rows.
+     * @return True if transaction was committed, false otherwise.
+     */
+    public static boolean executeBatch(@NotNull AbstractDataConnector connector,
+                                       @NotNull Map<SQLStatementPlan, List<List<Object>>> batches) {
+        return executeBatchCounts(connector, batches) != null;
+    }
+
+    /**
+     * Same as {@link #executeBatch(AbstractDataConnector, Map)}, but returns affected rows of the statements.
+     *
+     * @return Affected rows for each parameter row, in order of the plans and their rows, or null if transaction failed.
+     */
+    @Nullable
+    public static List<int[]> executeBatchCounts(@NotNull AbstractDataConnector connector,
+                                                 @NotNull Map<SQLStatementPlan, List<List<Object>>> batches) {
+        if (batches.isEmpty()) return Collections.emptyList();
+
+        try (Connection connection = connector.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                List<int[]> counts = new ArrayList<>(batches.size());
+                for (Map.Entry<SQLStatementPlan, List<List<Object>>> entry : batches.entrySet()) {
+                    try (PreparedStatement statement = connection.prepareStatement(entry.getKey().getSQL())) {
+                        for (List<Object> parameters : entry.getValue()) {
+                            entry.getKey().bind(statement, parameters);
+                            statement.addBatch();
+                        }
+                        counts.add(statement.executeBatch());
+                    }
+                }
+                connection.commit();
+                return counts;
+            }
+            catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+            finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+        catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
     @NotNull
     public static <T> List<@NotNull T> executeQuery(@NotNull AbstractDataConnector connector, @NotNull String sql,
                                                     @NotNull Collection<String> values1,
@@ -84,7 +188,7 @@ public class SQLQueries {
                                                     int amount) {
 
         List<T> list = new ArrayList<>();
-        try (Connection connection = connector.getConnection();
+        try (Connection connection = connector.getReadConnection();
              PreparedStatement statement = connection.prepareStatement(sql)) {
 
             int count = 1;
@@ -105,4 +209,124 @@ public class SQLQueries {
 
         return list;
     }
-}
\ No newline at end of file
+
+    @NotNull
+    public static <T> List<@NotNull T> executeQuery(@NotNull AbstractDataConnector connector, @NotNull SQLStatementPlan plan,
+                                                    @NotNull List<SQLCondition> wheres,
+                                                    @NotNull Function<ResultSet, T> dataFunction,
+                                                    int amount) {
+
+        List<T> list = new ArrayList<>();
+        try (Connection connection = connector.getReadConnection();
+             PreparedStatement statement = connection.prepareStatement(plan.getSQL())) {
+
+            plan.bind(statement, Collections.emptyList(), wheres);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while ((amount < 0 || list.size() < amount) && resultSet.next()) {
+                    T data = dataFunction.apply(resultSet);
+                    if (data != null) list.add(data);
+                }
+            }
+        }
+        catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        return list;
+    }
+
+    /**
+     * Executes query and passes each row to the consumer without collecting the results.
+     *
+     * @param fetchSize Amount of rows fetched from the database at once, or 0 for driver default.
+     * @return Amount of processed rows.
+     */
+    public static int executeQuery(@NotNull AbstractDataConnector connector, @NotNull SQLStatementPlan plan,
+                                   @NotNull List<SQLCondition> wheres,
+                                   @NotNull Consumer<ResultSet> consumer,
+                                   int fetchSize) {
+
+        int count = 0;
+        try (Connection connection = connector.getReadConnection();
+             PreparedStatement statement = connection.prepareStatement(plan.getSQL(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            if (fetchSize > 0) statement.setFetchSize(fetchSize);
+            plan.bind(statement, Collections.emptyList(), wheres);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    consumer.accept(resultSet);
+                    count++;
+                }
+            }
+        }
+        catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return count;
+    }
+
+    /**
+     * Executes query and returns lazy stream of its results.
+     * Database connection is kept open until the stream is closed, so it must be used in try-with-resources.
+     *
+     * @param fetchSize Amount of rows fetched from the database at once, or 0 for driver default.
+     * @return Stream of non-null results.
+     */
+    @NotNull
+    public static <T> Stream<@NotNull T> streamQuery(@NotNull AbstractDataConnector connector, @NotNull SQLStatementPlan plan,
+                                                     @NotNull List<SQLCondition> wheres,
+                                                     @NotNull Function<ResultSet, T> dataFunction,
+                                                     int fetchSize) {
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            connection = connector.getReadConnection();
+            statement = connection.prepareStatement(plan.getSQL(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            if (fetchSize > 0) statement.setFetchSize(fetchSize);
+            plan.bind(statement, Collections.emptyList(), wheres);
+            resultSet = statement.executeQuery();
+        }
+        catch (SQLException e) {
+            e.printStackTrace();
+            closeQuietly(resultSet, statement, connection);
+            return Stream.empty();
+        }
+
+        ResultSet results = resultSet;
+        AutoCloseable[] resources = new AutoCloseable[]{resultSet, statement, connection};
+        Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    while (results.next()) {
+                        T data = dataFunction.apply(results);
+                        if (data == null) continue;
+
+                        action.accept(data);
+                        return true;
+                    }
+                    return false;
+                }
+                catch (SQLException e) {
+                    throw new IllegalStateException("Could not read query result", e);
+                }
+            }
+        };
+        return StreamSupport.stream(spliterator, false).onClose(() -> closeQuietly(resources));
+    }
+
+    private static void closeQuietly(@Nullable AutoCloseable... resources) {
+        for (AutoCloseable resource : resources) {
+            if (resource == null) continue;
+            try {
+                resource.close();
+            }
+            catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
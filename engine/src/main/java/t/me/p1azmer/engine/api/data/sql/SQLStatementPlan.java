@@ -0,0 +1,132 @@
+package t.me.p1azmer.engine.api.data.sql;
+
+import org.jetbrains.annotations.NotNull;
+import t.me.p1azmer.engine.api.data.sql.column.ColumnBinder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Precompiled SQL statement with the binders of its parameters.
+ * Plans are cached by the statement type, table, column set and condition shape,
+ * so the SQL text is built only once for each query shape.
+ */
+public final class SQLStatementPlan {
+
+    private static final Map<Key, SQLStatementPlan> CACHE = new ConcurrentHashMap<>();
+
+    private final String         sql;
+    private final ColumnBinder[] binders;
+
+    private SQLStatementPlan(@NotNull String sql, @NotNull ColumnBinder[] binders) {
+        this.sql = sql;
+        this.binders = binders;
+    }
+
+    @NotNull
+    public static SQLStatementPlan of(@NotNull String statement, @NotNull String table,
+                                      @NotNull List<SQLColumn> columns,
+                                      @NotNull List<SQLCondition> wheres,
+                                      @NotNull Function<Key, String> sqlBuilder) {
+        return of(statement, table, columns, wheres, Collections.emptyList(), sqlBuilder);
+    }
+
+    @NotNull
+    public static SQLStatementPlan of(@NotNull String statement, @NotNull String table,
+                                      @NotNull List<SQLColumn> columns,
+                                      @NotNull List<SQLCondition> wheres,
+                                      @NotNull List<SQLColumn> keyColumns,
+                                      @NotNull Function<Key, String> sqlBuilder) {
+        Key key = Key.of(statement, table, columns, wheres, keyColumns);
+        SQLStatementPlan plan = CACHE.get(key);
+        if (plan != null) return plan;
+
+        return CACHE.computeIfAbsent(key, k -> {
+            List<ColumnBinder> binders = new ArrayList<>(k.columns().size() + k.whereColumns().size());
+            if (k.bindsColumns()) k.columns().forEach(column -> binders.add(column.getType().getBinder()));
+            k.whereColumns().forEach(column -> binders.add(column.getType().getBinder()));
+            return new SQLStatementPlan(sqlBuilder.apply(k), binders.toArray(new ColumnBinder[0]));
+        });
+    }
+
+    public static void clearCache() {
+        CACHE.clear();
+    }
+
+    @NotNull
+    public String getSQL() {
+        return sql;
+    }
+
+    public int getParameterCount() {
+        return binders.length;
+    }
+
+    public void bind(@NotNull PreparedStatement statement, @NotNull List<SQLValue> values, @NotNull List<SQLCondition> wheres) throws SQLException {
+        int index = 0;
+        for (SQLValue value : values) {
+            this.binders[index].bind(statement, ++index, value.getRawValue());
+        }
+        for (SQLCondition where : wheres) {
+            this.binders[index].bind(statement, ++index, where.getValue().getRawValue());
+        }
+    }
+
+    public void bind(@NotNull PreparedStatement statement, @NotNull List<Object> parameters) throws SQLException {
+        int index = 0;
+        for (Object parameter : parameters) {
+            this.binders[index].bind(statement, ++index, parameter);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SQLStatementPlan [sql=" + this.sql + "]";
+    }
+
+    public record Key(@NotNull String statement, @NotNull String table,
+                      @NotNull List<SQLColumn> columns,
+                      @NotNull List<SQLColumn> whereColumns,
+                      @NotNull List<SQLCondition.Type> whereTypes,
+                      @NotNull List<SQLColumn> keyColumns) {
+
+        @NotNull
+        static Key of(@NotNull String statement, @NotNull String table,
+                      @NotNull List<SQLColumn> columns, @NotNull List<SQLCondition> wheres,
+                      @NotNull List<SQLColumn> keyColumns) {
+            List<SQLColumn> whereColumns = new ArrayList<>(wheres.size());
+            List<SQLCondition.Type> whereTypes = new ArrayList<>(wheres.size());
+            for (SQLCondition where : wheres) {
+                whereColumns.add(where.getValue().getColumn());
+                whereTypes.add(where.getType());
+            }
+            return new Key(statement, table, List.copyOf(columns), whereColumns, whereTypes, List.copyOf(keyColumns));
+        }
+
+        /**
+         * @return True if the statement has a parameter for each of its columns.
+         */
+        public boolean bindsColumns() {
+            return !this.statement.equals(SQLExecutor.SELECT);
+        }
+
+        @NotNull
+        public String whereClause() {
+            if (this.whereColumns.isEmpty()) return "";
+
+            StringBuilder builder = new StringBuilder(" WHERE ");
+            for (int index = 0; index < this.whereColumns.size(); index++) {
+                if (index > 0) builder.append(" AND ");
+                builder.append(this.whereColumns.get(index).getNameEscaped()).append(" ")
+                    .append(this.whereTypes.get(index).getOperator()).append(" ?");
+            }
+            return builder.toString();
+        }
+    }
+}
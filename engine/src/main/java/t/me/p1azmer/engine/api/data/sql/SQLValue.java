@@ -2,12 +2,18 @@ package t.me.p1azmer.engine.api.data.sql;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Base64;
+
 public class SQLValue {
 
     private final SQLColumn column;
-    private final String    value;
+    private final Object    value;
 
     public SQLValue(@NotNull SQLColumn column, @NotNull String value) {
+        this(column, (Object) value);
+    }
+
+    private SQLValue(@NotNull SQLColumn column, @NotNull Object value) {
         this.column = column;
         this.value = value;
     }
@@ -17,6 +23,15 @@ public class SQLValue {
         return new SQLValue(column, value);
     }
 
+    /**
+     * Creates value that will be bound to the statement with its own type (numbers, booleans, byte arrays)
+     * by the column's {@link t.me.p1azmer.engine.api.data.sql.column.ColumnBinder}.
+     */
+    @NotNull
+    public static SQLValue typed(@NotNull SQLColumn column, @NotNull Object value) {
+        return new SQLValue(column, value);
+    }
+
     @NotNull
     public SQLColumn getColumn() {
         return column;
@@ -24,6 +39,14 @@ public class SQLValue {
 
     @NotNull
     public String getValue() {
+        if (this.value instanceof byte[] bytes) {
+            return Base64.getEncoder().encodeToString(bytes);
+        }
+        return String.valueOf(this.value);
+    }
+
+    @NotNull
+    public Object getRawValue() {
         return value;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+package t.me.p1azmer.engine.api.data.sql.column;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+public interface ColumnBinder {
+
+    ColumnBinder STRING = (statement, index, value) -> statement.setString(index, String.valueOf(value));
+
+    ColumnBinder INTEGER = (statement, index, value) -> {
+        if (value instanceof Number number) statement.setInt(index, number.intValue());
+        else STRING.bind(statement, index, value);
+    };
+
+    ColumnBinder DOUBLE = (statement, index, value) -> {
+        if (value instanceof Number number) statement.setDouble(index, number.doubleValue());
+        else STRING.bind(statement, index, value);
+    };
+
+    ColumnBinder LONG = (statement, index, value) -> {
+        if (value instanceof Number number) statement.setLong(index, number.longValue());
+        else STRING.bind(statement, index, value);
+    };
+
+    ColumnBinder BOOLEAN = (statement, index, value) -> {
+        if (value instanceof Boolean bool) statement.setBoolean(index, bool);
+        else if (value instanceof Number number) statement.setInt(index, number.intValue());
+        else STRING.bind(statement, index, value);
+    };
+
+    ColumnBinder BYTES = (statement, index, value) -> {
+        if (value instanceof byte[] bytes) statement.setBytes(index, bytes);
+        else STRING.bind(statement, index, value);
+    };
+
+    void bind(@NotNull PreparedStatement statement, int index, @NotNull Object value) throws SQLException;
+}
@@ -31,5 +31,9 @@ public interface ColumnFormer {
         return storageType == StorageType.SQLITE ? "INTEGER NOT NULL" : "TINYINT(1) NOT NULL";
     };
 
+    ColumnFormer BYTES = (storageType, length) -> {
+        return storageType == StorageType.SQLITE ? "BLOB NOT NULL" : "LONGBLOB NOT NULL";
+    };
+
     @NotNull String build(@NotNull StorageType storageType, int length);
 }
\ No newline at end of file
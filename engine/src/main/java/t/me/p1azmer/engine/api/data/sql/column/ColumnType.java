@@ -4,20 +4,32 @@ import org.jetbrains.annotations.NotNull;
 
 public class ColumnType {
 
-    public static final ColumnType INTEGER = new ColumnType(ColumnFormer.INTEGER);
-    public static final ColumnType DOUBLE = new ColumnType(ColumnFormer.DOUBLE);
-    public static final ColumnType LONG = new ColumnType(ColumnFormer.LONG);
-    public static final ColumnType BOOLEAN = new ColumnType(ColumnFormer.BOOLEAN);
-    public static final ColumnType STRING = new ColumnType(ColumnFormer.STRING);
+    public static final ColumnType INTEGER = new ColumnType(ColumnFormer.INTEGER, ColumnBinder.INTEGER);
+    public static final ColumnType DOUBLE = new ColumnType(ColumnFormer.DOUBLE, ColumnBinder.DOUBLE);
+    public static final ColumnType LONG = new ColumnType(ColumnFormer.LONG, ColumnBinder.LONG);
+    public static final ColumnType BOOLEAN = new ColumnType(ColumnFormer.BOOLEAN, ColumnBinder.BOOLEAN);
+    public static final ColumnType STRING = new ColumnType(ColumnFormer.STRING, ColumnBinder.STRING);
+    public static final ColumnType BYTES = new ColumnType(ColumnFormer.BYTES, ColumnBinder.BYTES);
 
     private final ColumnFormer former;
+    private final ColumnBinder binder;
 
     public ColumnType(@NotNull ColumnFormer former) {
+        this(former, ColumnBinder.STRING);
+    }
+
+    public ColumnType(@NotNull ColumnFormer former, @NotNull ColumnBinder binder) {
         this.former = former;
+        this.binder = binder;
     }
 
     @NotNull
     public ColumnFormer getFormer() {
         return former;
     }
+
+    @NotNull
+    public ColumnBinder getBinder() {
+        return binder;
+    }
 }
\ No newline at end of file
@@ -47,7 +47,7 @@ public final class AlterTableExecutor extends SQLExecutor<Void> {
 
     @NotNull
     public AlterTableExecutor renameColumn(@NotNull SQLValue... columns) {
-        return this.addColumn(Arrays.asList(columns));
+        return this.renameColumn(Arrays.asList(columns));
     }
 
     @NotNull
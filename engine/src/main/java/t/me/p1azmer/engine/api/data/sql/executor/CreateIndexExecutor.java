@@ -0,0 +1,75 @@
+package t.me.p1azmer.engine.api.data.sql.executor;
+
+import org.jetbrains.annotations.NotNull;
+import t.me.p1azmer.engine.api.data.StorageType;
+import t.me.p1azmer.engine.api.data.connection.AbstractDataConnector;
+import t.me.p1azmer.engine.api.data.sql.SQLColumn;
+import t.me.p1azmer.engine.api.data.sql.SQLExecutor;
+import t.me.p1azmer.engine.api.data.sql.SQLQueries;
+import t.me.p1azmer.engine.api.data.sql.column.ColumnType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public final class CreateIndexExecutor extends SQLExecutor<Boolean> {
+
+    private final StorageType     storageType;
+    private final String          name;
+    private final List<SQLColumn> columns;
+    private       boolean         unique;
+
+    private CreateIndexExecutor(@NotNull String table, @NotNull String name, @NotNull StorageType storageType) {
+        super(table);
+        this.storageType = storageType;
+        this.name = name;
+        this.columns = new ArrayList<>();
+    }
+
+    @NotNull
+    public static CreateIndexExecutor builder(@NotNull String table, @NotNull String name, @NotNull StorageType storageType) {
+        return new CreateIndexExecutor(table, name, storageType);
+    }
+
+    @NotNull
+    public CreateIndexExecutor columns(@NotNull SQLColumn... columns) {
+        return this.columns(Arrays.asList(columns));
+    }
+
+    @NotNull
+    public CreateIndexExecutor columns(@NotNull List<SQLColumn> columns) {
+        this.columns.clear();
+        this.columns.addAll(columns);
+        return this;
+    }
+
+    @NotNull
+    public CreateIndexExecutor unique(boolean unique) {
+        this.unique = unique;
+        return this;
+    }
+
+    /**
+     * @return True if index exists after execution, false otherwise.
+     */
+    @Override
+    @NotNull
+    public Boolean execute(@NotNull AbstractDataConnector connector) {
+        if (this.columns.isEmpty()) return false;
+        if (SQLQueries.hasIndex(connector, this.table, this.name)) return true;
+
+        String columns = this.columns.stream().map(column -> {
+            // MySQL can not index TEXT columns without a prefix length.
+            if (this.storageType == StorageType.MYSQL && column.getType() == ColumnType.STRING && column.getLength() < 1) {
+                return column.getNameEscaped() + "(64)";
+            }
+            return column.getNameEscaped();
+        }).collect(Collectors.joining(","));
+
+        String sql = "CREATE " + (this.unique ? "UNIQUE " : "") + "INDEX `" + this.name + "` ON " + this.getTable() + "(" + columns + ")";
+        SQLQueries.executeStatement(connector, sql);
+
+        return SQLQueries.hasIndex(connector, this.table, this.name);
+    }
+}
@@ -2,15 +2,12 @@ package t.me.p1azmer.engine.api.data.sql.executor;
 
 import org.jetbrains.annotations.NotNull;
 import t.me.p1azmer.engine.api.data.connection.AbstractDataConnector;
-import t.me.p1azmer.engine.api.data.sql.SQLCondition;
-import t.me.p1azmer.engine.api.data.sql.SQLExecutor;
-import t.me.p1azmer.engine.api.data.sql.SQLQueries;
-import t.me.p1azmer.engine.api.data.sql.SQLValue;
+import t.me.p1azmer.engine.api.data.sql.*;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public final class DeleteQueryExecutor extends SQLExecutor<Void> {
 
@@ -38,19 +35,18 @@ public final class DeleteQueryExecutor extends SQLExecutor<Void> {
         return this;
     }
 
+    @NotNull
+    public SQLStatementPlan getPlan() {
+        return SQLStatementPlan.of(DELETE_FROM, this.getTable(), Collections.emptyList(), this.wheres,
+            key -> DELETE_FROM + " " + key.table() + key.whereClause());
+    }
+
     @Override
     @NotNull
     public Void execute(@NotNull AbstractDataConnector connector) {
         if (this.wheres.isEmpty()) return null;
 
-        String whereCols = this.wheres.stream()
-                .map(where -> where.getValue().getColumn().getNameEscaped() + " " + where.getType().getOperator() + " ?")
-                .collect(Collectors.joining(" AND "));
-        String sql = "DELETE FROM " + this.getTable() + (whereCols.isEmpty() ? "" : " WHERE " + whereCols);
-
-        List<String> whereVals = this.wheres.stream().map(SQLCondition::getValue).map(SQLValue::getValue).toList();
-
-        SQLQueries.executeStatement(connector, sql, whereVals);
+        SQLQueries.executeStatement(connector, this.getPlan(), Collections.emptyList(), this.wheres);
         return null;
     }
-}
\ No newline at end of file
+}
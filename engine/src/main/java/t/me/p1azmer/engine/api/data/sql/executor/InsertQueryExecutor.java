@@ -2,15 +2,12 @@ package t.me.p1azmer.engine.api.data.sql.executor;
 
 import org.jetbrains.annotations.NotNull;
 import t.me.p1azmer.engine.api.data.connection.AbstractDataConnector;
-import t.me.p1azmer.engine.api.data.sql.SQLColumn;
-import t.me.p1azmer.engine.api.data.sql.SQLExecutor;
-import t.me.p1azmer.engine.api.data.sql.SQLQueries;
-import t.me.p1azmer.engine.api.data.sql.SQLValue;
+import t.me.p1azmer.engine.api.data.sql.*;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public final class InsertQueryExecutor extends SQLExecutor<Void> {
 
@@ -38,17 +35,32 @@ public final class InsertQueryExecutor extends SQLExecutor<Void> {
         return this;
     }
 
+    @NotNull
+    public SQLStatementPlan getPlan() {
+        List<SQLColumn> columns = new ArrayList<>(this.values.size());
+        this.values.forEach(value -> columns.add(value.getColumn()));
+
+        return SQLStatementPlan.of(INSERT_INTO, this.getTable(), columns, Collections.emptyList(), key -> {
+            StringBuilder names = new StringBuilder();
+            StringBuilder marks = new StringBuilder();
+            for (int index = 0; index < key.columns().size(); index++) {
+                if (index > 0) {
+                    names.append(",");
+                    marks.append(",");
+                }
+                names.append(key.columns().get(index).getNameEscaped());
+                marks.append("?");
+            }
+            return INSERT_INTO + " " + key.table() + "(" + names + ") " + VALUES + "(" + marks + ")";
+        });
+    }
+
     @Override
     @NotNull
     public Void execute(@NotNull AbstractDataConnector connector) {
         if (this.values.isEmpty()) return null;
 
-        String columns = this.values.stream().map(SQLValue::getColumn).map(SQLColumn::getNameEscaped).collect(Collectors.joining(","));
-        String values = this.values.stream().map(value -> "?").collect(Collectors.joining(","));
-        String sql = INSERT_INTO + " " + this.getTable() + "(" + columns + ") " + VALUES + "(" + values + ")";
-        List<String> values2 = this.values.stream().map(SQLValue::getValue).toList();
-
-        SQLQueries.executeStatement(connector, sql, values2);
+        SQLQueries.executeStatement(connector, this.getPlan(), this.values, Collections.emptyList());
         return null;
     }
-}
\ No newline at end of file
+}
@@ -10,8 +10,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public final class SelectQueryExecutor<T> extends SQLExecutor<List<T>> {
 
@@ -19,6 +20,7 @@ public final class SelectQueryExecutor<T> extends SQLExecutor<List<T>> {
     private final List<SQLCondition>     wheres;
     private final Function<ResultSet, T> dataFunction;
     private       int                    amount;
+    private       int                    fetchSize;
 
     private SelectQueryExecutor(@NotNull String table, @NotNull Function<ResultSet, T> dataFunction) {
         super(table);
@@ -70,19 +72,56 @@ public final class SelectQueryExecutor<T> extends SQLExecutor<List<T>> {
         return this;
     }
 
+    /**
+     * Sets amount of rows fetched from the database at once for {@link #forEach} and {@link #stream}.
+     */
+    @NotNull
+    public SelectQueryExecutor<T> fetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+        return this;
+    }
+
+    @NotNull
+    public SQLStatementPlan getPlan() {
+        return SQLStatementPlan.of(SELECT, this.getTable(), this.columns, this.wheres, key -> {
+            StringBuilder sql = new StringBuilder(SELECT).append(" ");
+            for (int index = 0; index < key.columns().size(); index++) {
+                if (index > 0) sql.append(",");
+                sql.append(key.columns().get(index).getNameEscaped());
+            }
+            return sql.append(" ").append(FROM).append(" ").append(key.table()).append(key.whereClause()).toString();
+        });
+    }
+
     @Override
     @NotNull
     public List<T> execute(@NotNull AbstractDataConnector connector) {
         if (this.columns.isEmpty()) return Collections.emptyList();
 
-        String columns = this.columns.stream().map(SQLColumn::getNameEscaped).collect(Collectors.joining(","));
-        String wheres = this.wheres.stream().map(where -> where.getValue().getColumn().getNameEscaped() + " " + where.getType().getOperator() + " ?")
-                .collect(Collectors.joining(" AND "));
-        String sql = "SELECT " + columns + " FROM " + this.getTable() + (wheres.isEmpty() ? "" : " WHERE " + wheres);
+        return SQLQueries.executeQuery(connector, this.getPlan(), this.wheres, this.dataFunction, this.amount);
+    }
 
-        //List<String> values2 = this.columns.stream().map(SQLColumn::getName).toList();
-        List<String> whers2 = this.wheres.stream().map(SQLCondition::getValue).map(SQLValue::getValue).toList();
+    /**
+     * Executes query and passes each non-null result to the consumer without collecting them.
+     *
+     * @return Amount of processed rows.
+     */
+    public int forEach(@NotNull AbstractDataConnector connector, @NotNull Consumer<T> consumer) {
+        if (this.columns.isEmpty()) return 0;
+
+        return SQLQueries.executeQuery(connector, this.getPlan(), this.wheres, resultSet -> {
+            T data = this.dataFunction.apply(resultSet);
+            if (data != null) consumer.accept(data);
+        }, this.fetchSize);
+    }
+
+    /**
+     * Executes query and returns lazy stream of its results. Stream must be closed after use.
+     */
+    @NotNull
+    public Stream<T> stream(@NotNull AbstractDataConnector connector) {
+        if (this.columns.isEmpty()) return Stream.empty();
 
-        return SQLQueries.executeQuery(connector, sql, whers2, this.dataFunction, this.amount);
+        return SQLQueries.streamQuery(connector, this.getPlan(), this.wheres, this.dataFunction, this.fetchSize);
     }
-}
\ No newline at end of file
+}
@@ -2,15 +2,11 @@ package t.me.p1azmer.engine.api.data.sql.executor;
 
 import org.jetbrains.annotations.NotNull;
 import t.me.p1azmer.engine.api.data.connection.AbstractDataConnector;
-import t.me.p1azmer.engine.api.data.sql.SQLCondition;
-import t.me.p1azmer.engine.api.data.sql.SQLExecutor;
-import t.me.p1azmer.engine.api.data.sql.SQLQueries;
-import t.me.p1azmer.engine.api.data.sql.SQLValue;
+import t.me.p1azmer.engine.api.data.sql.*;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public final class UpdateQueryExecutor extends SQLExecutor<Void> {
 
@@ -52,22 +48,36 @@ public final class UpdateQueryExecutor extends SQLExecutor<Void> {
         return this;
     }
 
+    @NotNull
+    public SQLStatementPlan getPlan() {
+        List<SQLColumn> columns = new ArrayList<>(this.values.size());
+        this.values.forEach(value -> columns.add(value.getColumn()));
+
+        return SQLStatementPlan.of(UPDATE, this.getTable(), columns, this.wheres, key -> {
+            StringBuilder sql = new StringBuilder(UPDATE).append(" ").append(key.table()).append(" ").append(SET).append(" ");
+            for (int index = 0; index < key.columns().size(); index++) {
+                if (index > 0) sql.append(",");
+                sql.append(key.columns().get(index).getNameEscaped()).append(" = ?");
+            }
+            return sql.append(key.whereClause()).toString();
+        });
+    }
+
+    @NotNull
+    public List<Object> getParameters() {
+        List<Object> parameters = new ArrayList<>(this.values.size() + this.wheres.size());
+        this.values.forEach(value -> parameters.add(value.getRawValue()));
+        this.wheres.forEach(where -> parameters.add(where.getValue().getRawValue()));
+        return parameters;
+    }
+
     @Override
     @NotNull
     public Void execute(@NotNull AbstractDataConnector connector) {
         if (this.values.isEmpty()) return null;
 
-        String values = this.values.stream().map(value -> value.getColumn().getNameEscaped() + " = ?")
-                .collect(Collectors.joining(","));
-        String wheres = this.wheres.stream().map(where -> where.getValue().getColumn().getNameEscaped() + " " + where.getType().getOperator() + " ?")
-                .collect(Collectors.joining(" AND "));
-        String sql = "UPDATE " + this.getTable() + " SET " + values + (wheres.isEmpty() ? "" : " WHERE " + wheres);
-
-        List<String> values2 = this.values.stream().map(SQLValue::getValue).toList();
-        List<String> whers2 = this.wheres.stream().map(SQLCondition::getValue).map(SQLValue::getValue).toList();
-
-        SQLQueries.executeStatement(connector, sql, values2, whers2);
+        SQLQueries.executeStatement(connector, this.getPlan(), this.values, this.wheres);
         return null;
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,137 @@
+package t.me.p1azmer.engine.api.data.sql.executor;
+
+import org.jetbrains.annotations.NotNull;
+import t.me.p1azmer.engine.api.data.StorageType;
+import t.me.p1azmer.engine.api.data.connection.AbstractDataConnector;
+import t.me.p1azmer.engine.api.data.sql.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Inserts a row or updates the existing one in a single statement.
+ * Uses 'INSERT ... ON DUPLICATE KEY UPDATE' for MySQL and 'INSERT ... ON CONFLICT DO UPDATE' for SQLite.
+ * Key columns must be covered by a unique index.
+ */
+public final class UpsertQueryExecutor extends SQLExecutor<Integer> {
+
+    private static final String UPSERT      = "UPSERT";
+    private static final String INSERT_ONLY = "UPSERT_INSERT_ONLY";
+
+    private final StorageType     storageType;
+    private final List<SQLValue>  values;
+    private final List<SQLColumn> keys;
+    private       boolean         insertOnly;
+
+    private UpsertQueryExecutor(@NotNull String table, @NotNull StorageType storageType) {
+        super(table);
+        this.storageType = storageType;
+        this.values = new ArrayList<>();
+        this.keys = new ArrayList<>();
+    }
+
+    @NotNull
+    public static UpsertQueryExecutor builder(@NotNull String table, @NotNull StorageType storageType) {
+        return new UpsertQueryExecutor(table, storageType);
+    }
+
+    @NotNull
+    public UpsertQueryExecutor values(@NotNull SQLValue... values) {
+        return this.values(Arrays.asList(values));
+    }
+
+    @NotNull
+    public UpsertQueryExecutor values(@NotNull List<SQLValue> values) {
+        this.values.clear();
+        this.values.addAll(values);
+        return this;
+    }
+
+    @NotNull
+    public UpsertQueryExecutor keys(@NotNull SQLColumn... keys) {
+        return this.keys(Arrays.asList(keys));
+    }
+
+    @NotNull
+    public UpsertQueryExecutor keys(@NotNull List<SQLColumn> keys) {
+        this.keys.clear();
+        this.keys.addAll(keys);
+        return this;
+    }
+
+    /**
+     * Sets whether or not existing row should be left untouched on key conflict.
+     */
+    @NotNull
+    public UpsertQueryExecutor insertOnly(boolean insertOnly) {
+        this.insertOnly = insertOnly;
+        return this;
+    }
+
+    @NotNull
+    public SQLStatementPlan getPlan() {
+        List<SQLColumn> columns = new ArrayList<>(this.values.size());
+        this.values.forEach(value -> columns.add(value.getColumn()));
+
+        String statement = (this.insertOnly ? INSERT_ONLY : UPSERT) + "_" + this.storageType.name();
+        return SQLStatementPlan.of(statement, this.getTable(), columns, Collections.emptyList(), this.keys, key -> {
+            StringBuilder names = new StringBuilder();
+            StringBuilder marks = new StringBuilder();
+            StringBuilder updates = new StringBuilder();
+            for (SQLColumn column : key.columns()) {
+                if (!names.isEmpty()) {
+                    names.append(",");
+                    marks.append(",");
+                }
+                names.append(column.getNameEscaped());
+                marks.append("?");
+
+                if (key.keyColumns().contains(column)) continue;
+                if (!updates.isEmpty()) updates.append(",");
+
+                String name = column.getNameEscaped();
+                if (this.storageType == StorageType.MYSQL) {
+                    updates.append(name).append(" = VALUES(").append(name).append(")");
+                }
+                else {
+                    updates.append(name).append(" = excluded.").append(name);
+                }
+            }
+
+            boolean ignore = this.insertOnly || updates.isEmpty();
+            if (this.storageType == StorageType.MYSQL) {
+                // No 'INSERT IGNORE' as it turns all the errors into warnings, not only the duplicate keys.
+                // Assigning key to itself leaves the row untouched, so 0 rows are affected.
+                if (ignore) {
+                    updates.setLength(0);
+                    for (SQLColumn column : key.keyColumns()) {
+                        if (!updates.isEmpty()) updates.append(",");
+                        updates.append(column.getNameEscaped()).append(" = ").append(column.getNameEscaped());
+                    }
+                }
+                return INSERT_INTO + " " + key.table() + "(" + names + ") " + VALUES + "(" + marks + ")" + " ON DUPLICATE KEY UPDATE " + updates;
+            }
+
+            StringBuilder conflict = new StringBuilder();
+            for (SQLColumn column : key.keyColumns()) {
+                if (!conflict.isEmpty()) conflict.append(",");
+                conflict.append(column.getNameEscaped());
+            }
+            return INSERT_INTO + " " + key.table() + "(" + names + ") " + VALUES + "(" + marks + ")"
+                + " ON CONFLICT(" + conflict + ") " + (ignore ? "DO NOTHING" : "DO UPDATE SET " + updates);
+        });
+    }
+
+    /**
+     * @return Amount of affected rows, 0 if row was left untouched, or -1 if statement failed.
+     */
+    @Override
+    @NotNull
+    public Integer execute(@NotNull AbstractDataConnector connector) {
+        if (this.values.isEmpty() || this.keys.isEmpty()) return 0;
+
+        return SQLQueries.executeUpdate(connector, this.getPlan(), this.values, Collections.emptyList());
+    }
+}
@@ -0,0 +1,112 @@
+package t.me.p1azmer.engine.api.data.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import t.me.p1azmer.engine.api.data.sql.SQLColumn;
+import t.me.p1azmer.engine.api.data.sql.SQLCondition;
+import t.me.p1azmer.engine.api.data.sql.SQLValue;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Storage backend used by data handlers.
+ * All operations are table based, and every table has an auto-increment 'id' column,
+ * so data handlers work the same way with any of the backends.
+ * Rows are passed to the data functions as {@link ResultSet} regardless of the backend.
+ */
+public interface DataStorage {
+
+    /**
+     * @return True if storage can be shared by multiple servers, so data synchronization makes sense.
+     */
+    boolean isShared();
+
+    void close();
+
+    boolean hasTable(@NotNull String table);
+
+    boolean hasColumn(@NotNull String table, @NotNull SQLColumn column);
+
+    void createTable(@NotNull String table, @NotNull List<SQLColumn> columns);
+
+    void renameTable(@NotNull String from, @NotNull String to);
+
+    /**
+     * Adds missing columns to the table. Values are used as defaults for the existing rows.
+     */
+    void addColumns(@NotNull String table, @NotNull List<SQLValue> columns);
+
+    /**
+     * Renames existing columns of the table. Values are the new column names.
+     */
+    void renameColumns(@NotNull String table, @NotNull List<SQLValue> columns);
+
+    void dropColumns(@NotNull String table, @NotNull List<SQLColumn> columns);
+
+    /**
+     * @return True if index exists or was created, false otherwise.
+     */
+    boolean createIndex(@NotNull String table, @NotNull String index, @NotNull List<SQLColumn> columns, boolean unique);
+
+    void insert(@NotNull String table, @NotNull List<SQLValue> values);
+
+    void update(@NotNull String table, @NotNull List<SQLValue> values, @NotNull List<SQLCondition> conditions);
+
+    void delete(@NotNull String table, @NotNull List<SQLCondition> conditions);
+
+    /**
+     * Inserts a new row or updates the one with the same key values.
+     *
+     * @param insertOnly If true, existing row is left untouched.
+     * @return Amount of affected rows, or -1 if operation failed.
+     */
+    int upsert(@NotNull String table, @NotNull List<SQLValue> values, @NotNull List<SQLColumn> keys, boolean insertOnly);
+
+    /**
+     * Applies all the updates at once, atomically when supported by the backend.
+     *
+     * @return True if all the updates were applied, false otherwise.
+     */
+    boolean updateBatch(@NotNull String table, @NotNull List<Update> updates);
+
+    /**
+     * Deletes rows matching each of the condition sets at once, atomically when supported by the backend.
+     *
+     * @return Amount of deleted rows for each of the condition sets, or null if operation failed.
+     */
+    @Nullable
+    int[] deleteBatch(@NotNull String table, @NotNull List<List<SQLCondition>> conditions);
+
+    @NotNull
+    <T> List<T> load(@NotNull String table, @NotNull Function<ResultSet, T> function,
+                     @NotNull List<SQLColumn> columns, @NotNull List<SQLCondition> conditions, int amount);
+
+    /**
+     * @return Amount of processed rows.
+     */
+    <T> int loadEach(@NotNull String table, @NotNull Function<ResultSet, T> function,
+                     @NotNull List<SQLColumn> columns, @NotNull List<SQLCondition> conditions,
+                     int fetchSize, @NotNull Consumer<T> consumer);
+
+    /**
+     * Returns lazy stream of the loaded rows. Stream must be closed after use.
+     */
+    @NotNull
+    <T> Stream<T> stream(@NotNull String table, @NotNull Function<ResultSet, T> function,
+                         @NotNull List<SQLColumn> columns, @NotNull List<SQLCondition> conditions, int fetchSize);
+
+    long count(@NotNull String table);
+
+    /**
+     * @return Maximal value of the numeric column, or 0 if table is empty.
+     */
+    long max(@NotNull String table, @NotNull SQLColumn column);
+
+    record Update(@NotNull List<SQLValue> values, @NotNull List<SQLCondition> conditions) {
+
+    }
+}
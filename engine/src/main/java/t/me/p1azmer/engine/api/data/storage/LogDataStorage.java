@@ -0,0 +1,1152 @@
+package t.me.p1azmer.engine.api.data.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import t.me.p1azmer.engine.NexPlugin;
+import t.me.p1azmer.engine.api.data.config.DataConfig;
+import t.me.p1azmer.engine.api.data.sql.SQLColumn;
+import t.me.p1azmer.engine.api.data.sql.SQLCondition;
+import t.me.p1azmer.engine.api.data.sql.SQLValue;
+import t.me.p1azmer.engine.utils.FileUtil;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Embedded storage that keeps all the tables in memory and writes every change to an append-only log file.
+ * Writes are a single buffered append without any query parsing, and reads never touch the disk.
+ * <br>
+ * Log is replayed on start and compacted into a snapshot of the live rows once it grows too large.
+ * Snapshot is written in background, so writes are not blocked by the compaction.
+ * Each record is protected by a checksum, so a record torn by a crash is dropped instead of corrupting the data.
+ * All the changes of a single operation are written as one record, so they are replayed all together or not at all.
+ * <br>
+ * Suitable for write-heavy data of a single server that is mostly looked up by key, like per-player stats.
+ */
+public class LogDataStorage implements DataStorage {
+
+    private static final byte OP_CREATE_TABLE  = 1;
+    private static final byte OP_RENAME_TABLE  = 2;
+    private static final byte OP_ADD_COLUMN    = 3;
+    private static final byte OP_RENAME_COLUMN = 4;
+    private static final byte OP_DROP_COLUMN   = 5;
+    private static final byte OP_CREATE_INDEX  = 6;
+    private static final byte OP_PUT           = 7;
+    private static final byte OP_DELETE        = 8;
+    private static final byte OP_BATCH         = 9;
+
+    private static final byte VALUE_NULL = 0;
+
+    private final NexPlugin<?>           plugin;
+    private final File                   file;
+    private final boolean                fsync;
+    private final int                    compactThreshold;
+    private final Map<String, LogTable>  tables;
+    private final ReentrantReadWriteLock lock;
+    private final RecordEncoder          encoder;
+    private final List<byte[]>           pending;
+
+    private FileOutputStream fileOutput;
+    private DataOutputStream output;
+    private long             length;
+    private long             records;
+    private boolean          closed;
+    private ExecutorService  compactor;
+    private boolean          compactorClosed;
+    private boolean          compacting;
+
+    public LogDataStorage(@NotNull NexPlugin<?> plugin, @NotNull DataConfig config) {
+        this(plugin, new File(getFilePath(plugin, config)), config.logFsync, config.logCompactThreshold);
+    }
+
+    public LogDataStorage(@NotNull NexPlugin<?> plugin, @NotNull File file, boolean fsync, int compactThreshold) {
+        this.plugin = plugin;
+        this.file = file;
+        this.fsync = fsync;
+        this.compactThreshold = Math.max(1000, compactThreshold);
+        this.tables = new HashMap<>();
+        this.lock = new ReentrantReadWriteLock();
+        this.encoder = new RecordEncoder();
+        this.pending = new ArrayList<>();
+
+        this.lock.writeLock().lock();
+        try {
+            // Log that could not be loaded is left untouched and nothing is written to it.
+            if (this.replay()) {
+                this.openOutput();
+                this.scheduleCompaction();
+            }
+        }
+        finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @NotNull
+    private static String getFilePath(@NotNull NexPlugin<?> plugin, @NotNull DataConfig config) {
+        String fileName = config.logFilename;
+        if (fileName.startsWith("@path=")) {
+            return FileUtil.relativize(fileName.replace("@path=", ""));
+        }
+        return plugin.getDataFolder().getAbsolutePath() + "/" + fileName;
+    }
+
+    @NotNull
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @return Amount of changes in the log file, including the outdated ones.
+     */
+    public long getRecords() {
+        this.lock.readLock().lock();
+        try {
+            return this.records;
+        }
+        finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isShared() {
+        return false;
+    }
+
+    @Override
+    public void close() {
+        this.shutdownCompactor();
+
+        this.lock.writeLock().lock();
+        try {
+            if (this.closed) return;
+
+            // Compaction that did not finish in time still owns the temporary file.
+            if (this.output != null && !this.compacting && this.isCompactionNeeded()) this.compact(this.snapshot());
+            this.closeOutput();
+            this.closed = true;
+        }
+        finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean hasTable(@NotNull String table) {
+        this.lock.readLock().lock();
+        try {
+            return this.tables.containsKey(table);
+        }
+        finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean hasColumn(@NotNull String table, @NotNull SQLColumn column) {
+        this.lock.readLock().lock();
+        try {
+            LogTable logTable = this.tables.get(table);
+            return logTable != null && (LogTable.isId(column.getName()) || logTable.getColumn(column.getName()) != null);
+        }
+        finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void createTable(@NotNull String table, @NotNull List<SQLColumn> columns) {
+        if (columns.isEmpty()) return;
+
+        this.write(() -> {
+            if (this.tables.containsKey(table)) return true;
+
+            this.append(OP_CREATE_TABLE, out -> {
+                out.writeUTF(table);
+                out.writeInt(columns.size());
+                for (SQLColumn column : columns) {
+                    out.writeUTF(column.getName());
+                    out.writeByte(LogTable.typeOf(column.getType()));
+                }
+            });
+            return true;
+        });
+    }
+
+    @Override
+    public void renameTable(@NotNull String from, @NotNull String to) {
+        this.write(() -> {
+            if (!this.tables.containsKey(from) || this.tables.containsKey(to)) return true;
+
+            this.append(OP_RENAME_TABLE, out -> {
+                out.writeUTF(from);
+                out.writeUTF(to);
+            });
+            return true;
+        });
+    }
+
+    @Override
+    public void addColumns(@NotNull String table, @NotNull List<SQLValue> columns) {
+        this.write(() -> {
+            LogTable logTable = this.getTable(table);
+            if (logTable == null) return false;
+
+            for (SQLValue value : columns) {
+                SQLColumn column = value.getColumn();
+                if (logTable.getColumn(column.getName()) != null) continue;
+
+                byte type = LogTable.typeOf(column.getType());
+                Object defaultValue = LogTable.normalize(type, value.getRawValue());
+                this.append(OP_ADD_COLUMN, out -> {
+                    out.writeUTF(table);
+                    out.writeUTF(column.getName());
+                    out.writeByte(type);
+                    writeValue(out, defaultValue);
+                });
+            }
+            return true;
+        });
+    }
+
+    @Override
+    public void renameColumns(@NotNull String table, @NotNull List<SQLValue> columns) {
+        this.write(() -> {
+            LogTable logTable = this.getTable(table);
+            if (logTable == null) return false;
+
+            for (SQLValue value : columns) {
+                String column = logTable.getColumn(value.getColumn().getName());
+                if (column == null || logTable.getColumn(value.getValue()) != null) continue;
+
+                this.append(OP_RENAME_COLUMN, out -> {
+                    out.writeUTF(table);
+                    out.writeUTF(column);
+                    out.writeUTF(value.getValue());
+                });
+            }
+            return true;
+        });
+    }
+
+    @Override
+    public void dropColumns(@NotNull String table, @NotNull List<SQLColumn> columns) {
+        this.write(() -> {
+            LogTable logTable = this.getTable(table);
+            if (logTable == null) return false;
+
+            for (SQLColumn column : columns) {
+                String name = logTable.getColumn(column.getName());
+                if (name == null) continue;
+
+                this.append(OP_DROP_COLUMN, out -> {
+                    out.writeUTF(table);
+                    out.writeUTF(name);
+                });
+            }
+            return true;
+        });
+    }
+
+    @Override
+    public boolean createIndex(@NotNull String table, @NotNull String index, @NotNull List<SQLColumn> columns, boolean unique) {
+        if (columns.isEmpty()) return false;
+
+        return this.write(() -> {
+            LogTable logTable = this.getTable(table);
+            if (logTable == null) return false;
+            if (logTable.hasIndex(index)) return true;
+
+            List<String> names = new ArrayList<>();
+            for (SQLColumn column : columns) {
+                String name = logTable.getColumn(column.getName());
+                if (name == null) {
+                    this.plugin.error("Could not create index '" + index + "': no column '" + column.getName() + "' in '" + table + "' table.");
+                    return false;
+                }
+                names.add(name);
+            }
+
+            // Check for duplicates first, so the failed index is not logged.
+            if (unique && !this.canCreateUnique(logTable, names)) return false;
+
+            this.append(OP_CREATE_INDEX, out -> {
+                out.writeUTF(table);
+                out.writeUTF(index);
+                out.writeBoolean(unique);
+                out.writeInt(names.size());
+                for (String name : names) out.writeUTF(name);
+            });
+            return true;
+        });
+    }
+
+    private boolean canCreateUnique(@NotNull LogTable table, @NotNull List<String> columns) {
+        LogTable.Index index = new LogTable.Index("", columns, true, new HashMap<>());
+        for (Map<String, Object> row : table.getRows().values()) {
+            Object key = index.keyOf(row);
+            if (key != null && index.keys().putIfAbsent(key, 0L) != null) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void insert(@NotNull String table, @NotNull List<SQLValue> values) {
+        this.write(() -> {
+            LogTable logTable = this.getTable(table);
+            if (logTable == null) return false;
+
+            Map<String, Object> row = this.createRow(logTable, null, values);
+            if (row == null) return false;
+
+            long id = logTable.nextId();
+            if (logTable.findConflict(id, row) != null) {
+                this.plugin.error("Could not insert row into '" + table + "' table: duplicated unique key.");
+                return false;
+            }
+            this.appendPut(table, id, row);
+            return true;
+        });
+    }
+
+    @Override
+    public void update(@NotNull String table, @NotNull List<SQLValue> values, @NotNull List<SQLCondition> conditions) {
+        this.updateBatch(table, Collections.singletonList(new Update(values, conditions)));
+    }
+
+    @Override
+    public void delete(@NotNull String table, @NotNull List<SQLCondition> conditions) {
+        this.deleteBatch(table, Collections.singletonList(conditions));
+    }
+
+    @Override
+    public int upsert(@NotNull String table, @NotNull List<SQLValue> values, @NotNull List<SQLColumn> keys, boolean insertOnly) {
+        if (values.isEmpty() || keys.isEmpty()) return 0;
+
+        int[] affected = new int[]{-1};
+        this.write(() -> {
+            LogTable logTable = this.getTable(table);
+            if (logTable == null) return false;
+
+            List<SQLCondition> conditions = new ArrayList<>();
+            for (SQLValue value : values) {
+                if (keys.contains(value.getColumn())) conditions.add(SQLCondition.equal(value));
+            }
+
+            List<Map.Entry<Long, Map<String, Object>>> existing = logTable.select(conditions, 1);
+            if (!existing.isEmpty()) {
+                if (insertOnly) {
+                    affected[0] = 0;
+                    return true;
+                }
+
+                Map.Entry<Long, Map<String, Object>> entry = existing.get(0);
+                Map<String, Object> row = this.createRow(logTable, entry.getValue(), values);
+                if (row == null) return false;
+                if (logTable.findConflict(entry.getKey(), row) != null) return false;
+
+                this.appendPut(table, entry.getKey(), row);
+                affected[0] = 1;
+                return true;
+            }
+
+            Map<String, Object> row = this.createRow(logTable, null, values);
+            if (row == null) return false;
+
+            long id = logTable.nextId();
+            if (logTable.findConflict(id, row) != null) return false;
+
+            this.appendPut(table, id, row);
+            affected[0] = 1;
+            return true;
+        });
+        return affected[0];
+    }
+
+    @Override
+    public boolean updateBatch(@NotNull String table, @NotNull List<Update> updates) {
+        if (updates.isEmpty()) return true;
+
+        return this.write(() -> {
+            LogTable logTable = this.getTable(table);
+            if (logTable == null) return false;
+
+            // Validate the whole batch first: its rows are written as a single record, so it is stored completely or not at all.
+            Map<Long, Map<String, Object>> changed = new LinkedHashMap<>();
+            for (Update update : updates) {
+                for (Map.Entry<Long, Map<String, Object>> entry : logTable.select(update.conditions(), -1)) {
+                    Map<String, Object> current = changed.getOrDefault(entry.getKey(), entry.getValue());
+                    Map<String, Object> row = this.createRow(logTable, current, update.values());
+                    if (row == null) return false;
+
+                    Long conflict = logTable.findConflict(entry.getKey(), row);
+                    if (conflict != null && !changed.containsKey(conflict)) {
+                        this.plugin.error("Could not update row in '" + table + "' table: duplicated unique key.");
+                        return false;
+                    }
+                    changed.put(entry.getKey(), row);
+                }
+            }
+
+            for (Map.Entry<Long, Map<String, Object>> entry : changed.entrySet()) {
+                this.appendPut(table, entry.getKey(), entry.getValue());
+            }
+            return true;
+        });
+    }
+
+    @Override
+    @Nullable
+    public int[] deleteBatch(@NotNull String table, @NotNull List<List<SQLCondition>> conditions) {
+        int[] deleted = new int[conditions.size()];
+        if (conditions.isEmpty()) return deleted;
+
+        boolean result = this.write(() -> {
+            LogTable logTable = this.getTable(table);
+            if (logTable == null) return false;
+
+            Set<Long> ids = new LinkedHashSet<>();
+            for (int index = 0; index < conditions.size(); index++) {
+                for (Map.Entry<Long, Map<String, Object>> entry : logTable.select(conditions.get(index), -1)) {
+                    if (ids.add(entry.getKey())) deleted[index]++;
+                }
+            }
+
+            for (long id : ids) {
+                this.append(OP_DELETE, out -> {
+                    out.writeUTF(table);
+                    out.writeLong(id);
+                });
+            }
+            return true;
+        });
+        return result ? deleted : null;
+    }
+
+    @Override
+    @NotNull
+    public <T> List<T> load(@NotNull String table, @NotNull Function<ResultSet, T> function,
+                            @NotNull List<SQLColumn> columns, @NotNull List<SQLCondition> conditions, int amount) {
+        List<T> list = new ArrayList<>();
+        this.forEach(table, function, columns, conditions, amount, list::add);
+        return list;
+    }
+
+    @Override
+    public <T> int loadEach(@NotNull String table, @NotNull Function<ResultSet, T> function,
+                            @NotNull List<SQLColumn> columns, @NotNull List<SQLCondition> conditions,
+                            int fetchSize, @NotNull Consumer<T> consumer) {
+        return this.forEach(table, function, columns, conditions, -1, consumer);
+    }
+
+    private <T> int forEach(@NotNull String table, @NotNull Function<ResultSet, T> function,
+                             @NotNull List<SQLColumn> columns, @NotNull List<SQLCondition> conditions,
+                             int amount, @NotNull Consumer<T> consumer) {
+        Selection selection = this.select(table, columns, conditions, amount);
+        if (selection == null) return 0;
+
+        // Rows are immutable and columns are resolved by the selection, so data functions are called outside of the lock.
+        RowResultSet resultSet = new RowResultSet(selection);
+        int count = 0;
+        for (Map.Entry<Long, Map<String, Object>> entry : selection.rows()) {
+            T value = function.apply(resultSet.of(entry.getKey(), entry.getValue()));
+            count++;
+            if (value != null) consumer.accept(value);
+        }
+        return count;
+    }
+
+    @Override
+    @NotNull
+    public <T> Stream<T> stream(@NotNull String table, @NotNull Function<ResultSet, T> function,
+                                @NotNull List<SQLColumn> columns, @NotNull List<SQLCondition> conditions, int fetchSize) {
+        Selection selection = this.select(table, columns, conditions, -1);
+        if (selection == null) return Stream.empty();
+
+        return selection.rows().stream()
+            .map(entry -> function.apply(new RowResultSet(selection).of(entry.getKey(), entry.getValue())))
+            .filter(Objects::nonNull);
+    }
+
+    @Nullable
+    private Selection select(@NotNull String table, @NotNull List<SQLColumn> columns, @NotNull List<SQLCondition> conditions, int amount) {
+        this.lock.readLock().lock();
+        try {
+            LogTable logTable = this.getTable(table);
+            if (logTable == null) return null;
+
+            List<String> names = new ArrayList<>();
+            if (columns.isEmpty() || columns.stream().anyMatch(column -> column.getName().equals("*"))) {
+                names.add(LogTable.COLUMN_ID);
+                names.addAll(logTable.getColumns());
+            }
+            else columns.forEach(column -> names.add(column.getName()));
+
+            // Table columns may be changed once the lock is released, so real names are resolved here.
+            Map<String, String> realNames = new HashMap<>();
+            for (String name : names) {
+                String real = LogTable.isId(name) ? null : logTable.getColumn(name);
+                if (real == null) continue;
+
+                realNames.put(name, real);
+                realNames.put(name.toLowerCase(Locale.ROOT), real);
+            }
+
+            return new Selection(logTable.getName(), names, realNames, logTable.select(conditions, amount));
+        }
+        finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long count(@NotNull String table) {
+        this.lock.readLock().lock();
+        try {
+            LogTable logTable = this.tables.get(table);
+            return logTable == null ? 0L : logTable.getRows().size();
+        }
+        finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long max(@NotNull String table, @NotNull SQLColumn column) {
+        this.lock.readLock().lock();
+        try {
+            LogTable logTable = this.tables.get(table);
+            if (logTable == null || logTable.getRows().isEmpty()) return 0L;
+            if (LogTable.isId(column.getName())) return logTable.getRows().lastKey();
+
+            String name = logTable.getColumn(column.getName());
+            if (name == null) return 0L;
+
+            long max = Long.MIN_VALUE;
+            for (Map<String, Object> row : logTable.getRows().values()) {
+                if (row.get(name) instanceof Number number) max = Math.max(max, number.longValue());
+            }
+            return max == Long.MIN_VALUE ? 0L : max;
+        }
+        finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Nullable
+    private LogTable getTable(@NotNull String table) {
+        LogTable logTable = this.tables.get(table);
+        if (logTable == null) {
+            this.plugin.error("Table '" + table + "' does not exist in " + this.file.getName());
+        }
+        return logTable;
+    }
+
+    /**
+     * Creates a new row with the specified values on top of the current one.
+     *
+     * @return New row, or null if some of the columns do not exist.
+     */
+    @Nullable
+    private Map<String, Object> createRow(@NotNull LogTable table, @Nullable Map<String, Object> current, @NotNull List<SQLValue> values) {
+        Map<String, Object> row = current == null ? new HashMap<>() : new HashMap<>(current);
+        for (SQLValue value : values) {
+            String name = table.getColumn(value.getColumn().getName());
+            if (name == null) {
+                this.plugin.error("Unknown column '" + value.getColumn().getName() + "' in '" + table.getName() + "' table.");
+                return null;
+            }
+            row.put(name, LogTable.normalize(table.getType(name), value.getRawValue()));
+        }
+        return row;
+    }
+
+    /**
+     * Runs the operation under the write lock and commits all its records at once.
+     * Tables are changed only after the records are written, so a failed write leaves them untouched.
+     *
+     * @return Result of the operation, or false if it failed to write.
+     */
+    private boolean write(@NotNull Operation operation) {
+        this.lock.writeLock().lock();
+        try {
+            if (this.closed || this.output == null) {
+                this.plugin.error("Could not write to " + this.file.getName() + ": storage is closed or was not loaded.");
+                return false;
+            }
+
+            this.pending.clear();
+            boolean result = operation.run();
+            if (!this.pending.isEmpty()) this.commit();
+
+            this.scheduleCompaction();
+            return result;
+        }
+        catch (IOException exception) {
+            exception.printStackTrace();
+            return false;
+        }
+        finally {
+            this.pending.clear();
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes pending records of the operation as a single log record, then applies them to the in-memory tables.
+     */
+    private void commit() throws IOException {
+        byte[] bytes = this.pending.size() == 1 ? this.pending.get(0) : this.encoder.encode(OP_BATCH, out -> {
+            out.writeInt(this.pending.size());
+            for (byte[] record : this.pending) {
+                out.writeInt(record.length);
+                out.write(record);
+            }
+        });
+
+        try {
+            this.encoder.write(this.output, bytes);
+            this.output.flush();
+            if (this.fsync) this.fileOutput.getFD().sync();
+        }
+        catch (IOException exception) {
+            this.resetOutput();
+            throw exception;
+        }
+
+        this.length += 8 + bytes.length;
+        this.records += this.apply(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    /**
+     * Drops the output after a failed write and cuts the partially written record off the log,
+     * so records written after it are not discarded together with it on replay.
+     */
+    private void resetOutput() {
+        try {
+            this.fileOutput.close();
+        }
+        catch (IOException exception) {
+            exception.printStackTrace();
+        }
+        this.output = null;
+        this.fileOutput = null;
+
+        try (FileChannel channel = FileChannel.open(this.file.toPath(), StandardOpenOption.WRITE)) {
+            channel.truncate(this.length);
+        }
+        catch (IOException exception) {
+            this.plugin.error("Could not remove failed record from " + this.file.getName() + ". Nothing will be written to it until restart.");
+            exception.printStackTrace();
+            return;
+        }
+        this.openOutput();
+    }
+
+    private void appendPut(@NotNull String table, long id, @NotNull Map<String, Object> row) throws IOException {
+        this.append(OP_PUT, out -> {
+            out.writeUTF(table);
+            out.writeLong(id);
+            out.writeInt(row.size());
+            for (Map.Entry<String, Object> entry : row.entrySet()) {
+                out.writeUTF(entry.getKey());
+                writeValue(out, entry.getValue());
+            }
+        });
+    }
+
+    /**
+     * Adds a record to the current operation. It's written and applied to the in-memory tables once the operation
+     * completes, so replay always gives the same result.
+     */
+    private void append(byte op, @NotNull RecordWriter writer) throws IOException {
+        this.pending.add(this.encoder.encode(op, writer));
+    }
+
+    /**
+     * @return Amount of the applied changes.
+     */
+    private int apply(@NotNull DataInputStream in) throws IOException {
+        byte op = in.readByte();
+        switch (op) {
+            case OP_CREATE_TABLE -> {
+                LogTable table = new LogTable(in.readUTF());
+                int size = in.readInt();
+                for (int index = 0; index < size; index++) {
+                    table.addColumn(in.readUTF(), in.readByte(), null);
+                }
+                this.tables.putIfAbsent(table.getName(), table);
+            }
+            case OP_RENAME_TABLE -> {
+                LogTable table = this.tables.remove(in.readUTF());
+                String name = in.readUTF();
+                if (table != null) {
+                    table.setName(name);
+                    this.tables.put(name, table);
+                }
+            }
+            case OP_ADD_COLUMN -> {
+                LogTable table = this.tables.get(in.readUTF());
+                String column = in.readUTF();
+                byte type = in.readByte();
+                Object defaultValue = readValue(in);
+                if (table != null) table.addColumn(column, type, defaultValue);
+            }
+            case OP_RENAME_COLUMN -> {
+                LogTable table = this.tables.get(in.readUTF());
+                String from = in.readUTF();
+                String to = in.readUTF();
+                if (table != null) table.renameColumn(from, to);
+            }
+            case OP_DROP_COLUMN -> {
+                LogTable table = this.tables.get(in.readUTF());
+                String column = in.readUTF();
+                if (table != null) table.dropColumn(column);
+            }
+            case OP_CREATE_INDEX -> {
+                LogTable table = this.tables.get(in.readUTF());
+                String name = in.readUTF();
+                boolean unique = in.readBoolean();
+                int size = in.readInt();
+                List<String> columns = new ArrayList<>(size);
+                for (int index = 0; index < size; index++) {
+                    columns.add(in.readUTF());
+                }
+                if (table != null) table.addIndex(name, columns, unique);
+            }
+            case OP_PUT -> {
+                LogTable table = this.tables.get(in.readUTF());
+                long id = in.readLong();
+                int size = in.readInt();
+                Map<String, Object> row = new HashMap<>(Math.max(4, size * 2));
+                for (int index = 0; index < size; index++) {
+                    row.put(in.readUTF(), readValue(in));
+                }
+                if (table != null) table.put(id, row);
+            }
+            case OP_DELETE -> {
+                LogTable table = this.tables.get(in.readUTF());
+                long id = in.readLong();
+                if (table != null) table.remove(id);
+            }
+            case OP_BATCH -> {
+                int size = in.readInt();
+                for (int index = 0; index < size; index++) {
+                    this.apply(new DataInputStream(new ByteArrayInputStream(in.readNBytes(in.readInt()))));
+                }
+                return size;
+            }
+            default -> throw new IOException("Unknown log record type: " + op);
+        }
+        return 1;
+    }
+
+    private static void writeValue(@NotNull DataOutputStream out, @Nullable Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(VALUE_NULL);
+        }
+        else if (value instanceof Integer number) {
+            out.writeByte(LogTable.TYPE_INTEGER);
+            out.writeInt(number);
+        }
+        else if (value instanceof Long number) {
+            out.writeByte(LogTable.TYPE_LONG);
+            out.writeLong(number);
+        }
+        else if (value instanceof Double number) {
+            out.writeByte(LogTable.TYPE_DOUBLE);
+            out.writeDouble(number);
+        }
+        else if (value instanceof Boolean bool) {
+            out.writeByte(LogTable.TYPE_BOOLEAN);
+            out.writeBoolean(bool);
+        }
+        else if (value instanceof byte[] bytes) {
+            out.writeByte(LogTable.TYPE_BYTES);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        else {
+            // writeUTF is limited to 64 KB, while user data columns can be much larger.
+            byte[] bytes = String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+            out.writeByte(LogTable.TYPE_STRING);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    @Nullable
+    private static Object readValue(@NotNull DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        return switch (type) {
+            case VALUE_NULL -> null;
+            case LogTable.TYPE_INTEGER -> in.readInt();
+            case LogTable.TYPE_LONG -> in.readLong();
+            case LogTable.TYPE_DOUBLE -> in.readDouble();
+            case LogTable.TYPE_BOOLEAN -> in.readBoolean();
+            case LogTable.TYPE_BYTES -> in.readNBytes(in.readInt());
+            case LogTable.TYPE_STRING -> new String(in.readNBytes(in.readInt()), StandardCharsets.UTF_8);
+            default -> throw new IOException("Unknown value type: " + type);
+        };
+    }
+
+    /**
+     * Loads the tables from the log. Torn or corrupted records at the end of the log are truncated.
+     *
+     * @return False if a valid record could not be applied, so the log must not be changed.
+     */
+    private boolean replay() {
+        if (!this.file.exists()) return true;
+
+        long started = System.currentTimeMillis();
+        long validLength = 0L;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(this.file), 1 << 16))) {
+            long length = this.file.length();
+            while (validLength + 4 <= length) {
+                int size = in.readInt();
+                if (size <= 0 || validLength + 8 + size > length) break;
+
+                byte[] bytes = in.readNBytes(size);
+                if (in.readInt() != this.encoder.checksum(bytes)) break;
+
+                try {
+                    this.records += this.apply(new DataInputStream(new ByteArrayInputStream(bytes)));
+                }
+                catch (IOException | RuntimeException exception) {
+                    // Record is not torn, so the following ones may be valid too: truncating would lose them.
+                    this.plugin.error("Could not apply record at byte " + validLength + " of " + this.file.getName() + ". Data is not loaded and the log is left untouched.");
+                    exception.printStackTrace();
+                    this.tables.clear();
+                    return false;
+                }
+                validLength += 8 + size;
+            }
+        }
+        catch (IOException exception) {
+            exception.printStackTrace();
+        }
+
+        this.length = validLength;
+        if (validLength < this.file.length()) {
+            this.plugin.warn("Data log " + this.file.getName() + " has incomplete records at the end (server crash?). They were discarded.");
+            try (FileChannel channel = FileChannel.open(this.file.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+            }
+            catch (IOException exception) {
+                exception.printStackTrace();
+            }
+        }
+
+        long rows = this.tables.values().stream().mapToLong(table -> table.getRows().size()).sum();
+        this.plugin.info("Loaded " + rows + " rows from " + this.file.getName() + " in " + (System.currentTimeMillis() - started) + " ms.");
+        return true;
+    }
+
+    private void openOutput() {
+        try {
+            File parent = this.file.getAbsoluteFile().getParentFile();
+            if (parent != null && !parent.exists()) parent.mkdirs();
+
+            this.fileOutput = new FileOutputStream(this.file, true);
+            this.output = new DataOutputStream(new BufferedOutputStream(this.fileOutput, 1 << 16));
+        }
+        catch (IOException exception) {
+            exception.printStackTrace();
+            this.fileOutput = null;
+            this.output = null;
+        }
+    }
+
+    private void closeOutput() {
+        if (this.output == null) return;
+
+        try {
+            this.output.flush();
+            this.fileOutput.getFD().sync();
+            this.output.close();
+        }
+        catch (IOException exception) {
+            exception.printStackTrace();
+        }
+        this.output = null;
+        this.fileOutput = null;
+    }
+
+    private boolean isCompactionNeeded() {
+        if (this.records < this.compactThreshold) return false;
+
+        long live = 0L;
+        for (LogTable table : this.tables.values()) {
+            live += table.getRows().size() + table.getIndexes().size() + 1;
+        }
+        return this.records > live * 2L;
+    }
+
+    /**
+     * Starts compaction of the log in background, if it's needed and not running yet.
+     * Tables are copied under the write lock, while the snapshot is written without blocking other operations.
+     */
+    private void scheduleCompaction() {
+        if (this.compacting || this.output == null || !this.isCompactionNeeded()) return;
+
+        Snapshot snapshot = this.snapshot();
+        try {
+            this.getCompactor().execute(() -> this.compact(snapshot));
+            this.compacting = true;
+        }
+        catch (RejectedExecutionException exception) {
+            // Storage is being closed, it will compact the log itself.
+        }
+    }
+
+    @NotNull
+    private ExecutorService getCompactor() {
+        if (this.compactorClosed) {
+            throw new RejectedExecutionException("Storage " + this.file.getName() + " is already closed.");
+        }
+        if (this.compactor == null) {
+            this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, this.file.getName() + "-Compaction");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return this.compactor;
+    }
+
+    /**
+     * Stops accepting new compactions and waits for the running one. Called without the lock, as compaction needs it to finish.
+     */
+    private void shutdownCompactor() {
+        ExecutorService compactor;
+        this.lock.writeLock().lock();
+        try {
+            this.compactorClosed = true;
+            compactor = this.compactor;
+        }
+        finally {
+            this.lock.writeLock().unlock();
+        }
+        if (compactor == null) return;
+
+        compactor.shutdown();
+        try {
+            if (!compactor.awaitTermination(1, TimeUnit.MINUTES)) {
+                this.plugin.warn("Compaction of " + this.file.getName() + " did not finish in time.");
+            }
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Copies the current state of the tables. Rows are immutable, so only the maps are copied.
+     */
+    @NotNull
+    private Snapshot snapshot() {
+        List<TableSnapshot> tables = new ArrayList<>(this.tables.size());
+        for (LogTable table : this.tables.values()) {
+            List<String> columns = List.copyOf(table.getColumns());
+            byte[] types = new byte[columns.size()];
+            for (int index = 0; index < types.length; index++) {
+                types[index] = table.getType(columns.get(index));
+            }
+
+            List<LogTable.Index> indexes = new ArrayList<>();
+            for (LogTable.Index index : table.getIndexes()) {
+                indexes.add(new LogTable.Index(index.name(), List.copyOf(index.columns()), index.unique(), Collections.emptyMap()));
+            }
+            tables.add(new TableSnapshot(table.getName(), columns, types, indexes, new TreeMap<>(table.getRows())));
+        }
+        return new Snapshot(tables, this.length, this.records);
+    }
+
+    /**
+     * Rewrites the log with the snapshot of the tables only.
+     * Snapshot is written to a temporary file first, so the log is never left incomplete.
+     * Records written after the snapshot was taken are copied to its end right before the file is replaced.
+     */
+    private void compact(@NotNull Snapshot snapshot) {
+        File temp = new File(this.file.getPath() + ".tmp");
+        RecordEncoder encoder = new RecordEncoder();
+        long written = 0L;
+
+        try (FileOutputStream fileOut = new FileOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut, 1 << 16))) {
+
+            for (TableSnapshot table : snapshot.tables()) {
+                written += this.writeSnapshot(out, encoder, table);
+            }
+            out.flush();
+            fileOut.getFD().sync();
+        }
+        catch (IOException exception) {
+            exception.printStackTrace();
+            temp.delete();
+            this.finishCompaction();
+            return;
+        }
+
+        this.lock.writeLock().lock();
+        try {
+            if (this.output == null) {
+                temp.delete();
+                return;
+            }
+
+            try (FileChannel source = FileChannel.open(this.file.toPath(), StandardOpenOption.READ);
+                 FileChannel target = FileChannel.open(temp.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                long position = snapshot.length();
+                while (position < this.length) {
+                    position += source.transferTo(position, this.length - position, target);
+                }
+                target.force(true);
+            }
+            catch (IOException exception) {
+                exception.printStackTrace();
+                temp.delete();
+                return;
+            }
+
+            this.closeOutput();
+            try {
+                Files.move(temp.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                this.records = written + this.records - snapshot.records();
+                this.length = this.file.length();
+            }
+            catch (IOException exception) {
+                exception.printStackTrace();
+                temp.delete();
+            }
+            this.openOutput();
+        }
+        finally {
+            this.compacting = false;
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    private void finishCompaction() {
+        this.lock.writeLock().lock();
+        try {
+            this.compacting = false;
+        }
+        finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    private long writeSnapshot(@NotNull DataOutputStream out, @NotNull RecordEncoder encoder, @NotNull TableSnapshot table) throws IOException {
+        long written = 0L;
+
+        written += writeSnapshotRecord(out, encoder, OP_CREATE_TABLE, record -> {
+            record.writeUTF(table.name());
+            record.writeInt(table.columns().size());
+            for (int index = 0; index < table.columns().size(); index++) {
+                record.writeUTF(table.columns().get(index));
+                record.writeByte(table.types()[index]);
+            }
+        });
+
+        for (LogTable.Index index : table.indexes()) {
+            written += writeSnapshotRecord(out, encoder, OP_CREATE_INDEX, record -> {
+                record.writeUTF(table.name());
+                record.writeUTF(index.name());
+                record.writeBoolean(index.unique());
+                record.writeInt(index.columns().size());
+                for (String column : index.columns()) record.writeUTF(column);
+            });
+        }
+
+        for (Map.Entry<Long, Map<String, Object>> entry : table.rows().entrySet()) {
+            written += writeSnapshotRecord(out, encoder, OP_PUT, record -> {
+                record.writeUTF(table.name());
+                record.writeLong(entry.getKey());
+                record.writeInt(entry.getValue().size());
+                for (Map.Entry<String, Object> value : entry.getValue().entrySet()) {
+                    record.writeUTF(value.getKey());
+                    writeValue(record, value.getValue());
+                }
+            });
+        }
+        return written;
+    }
+
+    private static int writeSnapshotRecord(@NotNull DataOutputStream out, @NotNull RecordEncoder encoder,
+                                           byte op, @NotNull RecordWriter writer) throws IOException {
+        encoder.write(out, encoder.encode(op, writer));
+        return 1;
+    }
+
+    record Selection(@NotNull String table, @NotNull List<String> columns, @NotNull Map<String, String> realNames,
+                     @NotNull List<Map.Entry<Long, Map<String, Object>>> rows) {
+
+    }
+
+    private record Snapshot(@NotNull List<TableSnapshot> tables, long length, long records) {
+
+    }
+
+    private record TableSnapshot(@NotNull String name, @NotNull List<String> columns, byte[] types,
+                                 @NotNull List<LogTable.Index> indexes, @NotNull NavigableMap<Long, Map<String, Object>> rows) {
+
+    }
+
+    /**
+     * Encodes and frames the log records. Each thread writing records uses its own encoder.
+     */
+    private static final class RecordEncoder {
+
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+        private final DataOutputStream      record = new DataOutputStream(this.buffer);
+        private final CRC32                 crc    = new CRC32();
+
+        byte[] encode(byte op, @NotNull RecordWriter writer) throws IOException {
+            this.buffer.reset();
+            this.record.writeByte(op);
+            writer.write(this.record);
+            return this.buffer.toByteArray();
+        }
+
+        void write(@NotNull DataOutputStream out, byte[] bytes) throws IOException {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            out.writeInt(this.checksum(bytes));
+        }
+
+        int checksum(byte[] bytes) {
+            this.crc.reset();
+            this.crc.update(bytes);
+            return (int) this.crc.getValue();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+
+        boolean run() throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface RecordWriter {
+
+        void write(@NotNull DataOutputStream out) throws IOException;
+    }
+}
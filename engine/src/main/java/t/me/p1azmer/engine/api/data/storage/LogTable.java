@@ -0,0 +1,407 @@
+package t.me.p1azmer.engine.api.data.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import t.me.p1azmer.engine.api.data.sql.SQLColumn;
+import t.me.p1azmer.engine.api.data.sql.SQLCondition;
+import t.me.p1azmer.engine.api.data.sql.column.ColumnBinder;
+import t.me.p1azmer.engine.api.data.sql.column.ColumnType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * In-memory table of the {@link LogDataStorage}.
+ * Rows are immutable maps of the column values, so they can be read outside of the storage lock.
+ */
+final class LogTable {
+
+    static final String COLUMN_ID = "id";
+
+    static final byte TYPE_STRING  = 1;
+    static final byte TYPE_INTEGER = 2;
+    static final byte TYPE_LONG    = 3;
+    static final byte TYPE_DOUBLE  = 4;
+    static final byte TYPE_BOOLEAN = 5;
+    static final byte TYPE_BYTES   = 6;
+
+    private final Map<String, String>               names;
+    private final Map<String, Byte>                 types;
+    private final List<String>                      columns;
+    private final NavigableMap<Long, Map<String, Object>> rows;
+    private final Map<String, Index>                indexes;
+
+    private String name;
+    private long   lastId;
+
+    LogTable(@NotNull String name) {
+        this.name = name;
+        this.names = new HashMap<>();
+        this.types = new HashMap<>();
+        this.columns = new ArrayList<>();
+        this.rows = new TreeMap<>();
+        this.indexes = new LinkedHashMap<>();
+    }
+
+    static byte typeOf(@NotNull ColumnType type) {
+        ColumnBinder binder = type.getBinder();
+        if (binder == ColumnBinder.INTEGER) return TYPE_INTEGER;
+        if (binder == ColumnBinder.LONG) return TYPE_LONG;
+        if (binder == ColumnBinder.DOUBLE) return TYPE_DOUBLE;
+        if (binder == ColumnBinder.BOOLEAN) return TYPE_BOOLEAN;
+        if (binder == ColumnBinder.BYTES) return TYPE_BYTES;
+        return TYPE_STRING;
+    }
+
+    @NotNull
+    String getName() {
+        return name;
+    }
+
+    void setName(@NotNull String name) {
+        this.name = name;
+    }
+
+    long getLastId() {
+        return lastId;
+    }
+
+    @NotNull
+    List<String> getColumns() {
+        return columns;
+    }
+
+    @NotNull
+    NavigableMap<Long, Map<String, Object>> getRows() {
+        return rows;
+    }
+
+    @NotNull
+    Collection<Index> getIndexes() {
+        return indexes.values();
+    }
+
+    byte getType(@NotNull String column) {
+        Byte type = this.types.get(column);
+        return type == null ? TYPE_STRING : type;
+    }
+
+    /**
+     * @return Column name as it was created, or null if there is no such column.
+     */
+    @Nullable
+    String getColumn(@NotNull String name) {
+        return this.names.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    static boolean isId(@NotNull String column) {
+        return column.equalsIgnoreCase(COLUMN_ID);
+    }
+
+    void addColumn(@NotNull String column, byte type, @Nullable Object defaultValue) {
+        if (this.getColumn(column) != null) return;
+
+        this.names.put(column.toLowerCase(Locale.ROOT), column);
+        this.types.put(column, type);
+        this.columns.add(column);
+        if (defaultValue == null) return;
+
+        this.rows.replaceAll((id, row) -> {
+            Map<String, Object> copy = new HashMap<>(row);
+            copy.put(column, defaultValue);
+            return copy;
+        });
+    }
+
+    void renameColumn(@NotNull String from, @NotNull String to) {
+        String column = this.getColumn(from);
+        if (column == null || this.getColumn(to) != null) return;
+
+        byte type = this.getType(column);
+        this.names.remove(column.toLowerCase(Locale.ROOT));
+        this.types.remove(column);
+        this.names.put(to.toLowerCase(Locale.ROOT), to);
+        this.types.put(to, type);
+        this.columns.set(this.columns.indexOf(column), to);
+        this.indexes.values().forEach(index -> index.columns().replaceAll(name -> name.equals(column) ? to : name));
+        this.rows.replaceAll((id, row) -> {
+            if (!row.containsKey(column)) return row;
+
+            Map<String, Object> copy = new HashMap<>(row);
+            copy.put(to, copy.remove(column));
+            return copy;
+        });
+    }
+
+    void dropColumn(@NotNull String name) {
+        String column = this.getColumn(name);
+        if (column == null) return;
+
+        this.names.remove(column.toLowerCase(Locale.ROOT));
+        this.types.remove(column);
+        this.columns.remove(column);
+        this.indexes.values().removeIf(index -> index.columns().contains(column));
+        this.rows.replaceAll((id, row) -> {
+            if (!row.containsKey(column)) return row;
+
+            Map<String, Object> copy = new HashMap<>(row);
+            copy.remove(column);
+            return copy;
+        });
+    }
+
+    /**
+     * @return True if index was created, false if unique index can not be created because of duplicated values.
+     */
+    boolean addIndex(@NotNull String name, @NotNull List<String> columns, boolean unique) {
+        if (this.indexes.containsKey(name)) return true;
+
+        Index index = new Index(name, new ArrayList<>(columns), unique, new HashMap<>());
+        if (unique) {
+            for (Map.Entry<Long, Map<String, Object>> entry : this.rows.entrySet()) {
+                Object key = index.keyOf(entry.getValue());
+                if (key != null && index.keys().putIfAbsent(key, entry.getKey()) != null) return false;
+            }
+        }
+        this.indexes.put(name, index);
+        return true;
+    }
+
+    boolean hasIndex(@NotNull String name) {
+        return this.indexes.containsKey(name);
+    }
+
+    /**
+     * @return ID of another row that has the same unique key values as the specified one, or null if there is no such row.
+     */
+    @Nullable
+    Long findConflict(long id, @NotNull Map<String, Object> row) {
+        for (Index index : this.indexes.values()) {
+            if (!index.unique()) continue;
+
+            Object key = index.keyOf(row);
+            Long other = key == null ? null : index.keys().get(key);
+            if (other != null && other != id) return other;
+        }
+        return null;
+    }
+
+    long nextId() {
+        return this.lastId + 1;
+    }
+
+    void put(long id, @NotNull Map<String, Object> row) {
+        Map<String, Object> previous = this.rows.put(id, row);
+        if (previous != null) this.unindex(id, previous);
+        this.index(id, row);
+        this.lastId = Math.max(this.lastId, id);
+    }
+
+    void remove(long id) {
+        Map<String, Object> previous = this.rows.remove(id);
+        if (previous != null) this.unindex(id, previous);
+    }
+
+    private void index(long id, @NotNull Map<String, Object> row) {
+        for (Index index : this.indexes.values()) {
+            Object key = index.unique() ? index.keyOf(row) : null;
+            if (key != null) index.keys().put(key, id);
+        }
+    }
+
+    private void unindex(long id, @NotNull Map<String, Object> row) {
+        for (Index index : this.indexes.values()) {
+            Object key = index.unique() ? index.keyOf(row) : null;
+            if (key != null) index.keys().remove(key, id);
+        }
+    }
+
+    /**
+     * Selects rows matching all the conditions. Unique indexes and 'id' bounds are used to avoid full scans when possible.
+     */
+    @NotNull
+    List<Map.Entry<Long, Map<String, Object>>> select(@NotNull List<SQLCondition> conditions, int amount) {
+        List<Map.Entry<Long, Map<String, Object>>> result = new ArrayList<>();
+        if (amount == 0) return result;
+
+        Long indexed = this.findIndexed(conditions);
+        Map<Long, Map<String, Object>> source;
+        if (indexed != null) {
+            Map<String, Object> row = this.rows.get(indexed);
+            source = row == null ? Collections.emptyMap() : Collections.singletonMap(indexed, row);
+        }
+        else source = this.getIdRange(conditions);
+
+        for (Map.Entry<Long, Map<String, Object>> entry : source.entrySet()) {
+            if (!this.matches(entry.getKey(), entry.getValue(), conditions)) continue;
+
+            result.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue()));
+            if (amount > 0 && result.size() >= amount) break;
+        }
+        return result;
+    }
+
+    @Nullable
+    private Long findIndexed(@NotNull List<SQLCondition> conditions) {
+        for (Index index : this.indexes.values()) {
+            if (!index.unique() || index.columns().size() != 1) continue;
+
+            String column = index.columns().get(0);
+            for (SQLCondition condition : conditions) {
+                if (condition.getType() != SQLCondition.Type.EQUAL) continue;
+                if (!column.equalsIgnoreCase(condition.getValue().getColumn().getName())) continue;
+
+                Object key = Index.keyOf(normalize(this.getType(column), condition.getValue().getRawValue()));
+                Long id = key == null ? null : index.keys().get(key);
+                return id == null ? -1L : id;
+            }
+        }
+        return null;
+    }
+
+    @NotNull
+    private NavigableMap<Long, Map<String, Object>> getIdRange(@NotNull List<SQLCondition> conditions) {
+        long from = Long.MIN_VALUE, to = Long.MAX_VALUE;
+        for (SQLCondition condition : conditions) {
+            if (!isId(condition.getValue().getColumn().getName())) continue;
+
+            Object value = normalize(TYPE_LONG, condition.getValue().getRawValue());
+            if (!(value instanceof Long number)) continue;
+
+            switch (condition.getType()) {
+                case GREATER -> from = Math.max(from, number == Long.MAX_VALUE ? number : number + 1);
+                case SMALLER -> to = Math.min(to, number == Long.MIN_VALUE ? number : number - 1);
+                case EQUAL -> {
+                    from = Math.max(from, number);
+                    to = Math.min(to, number);
+                }
+                default -> {}
+            }
+        }
+        if (from > to) return Collections.emptyNavigableMap();
+        if (from == Long.MIN_VALUE && to == Long.MAX_VALUE) return this.rows;
+        return this.rows.subMap(from, true, to, true);
+    }
+
+    boolean matches(long id, @NotNull Map<String, Object> row, @NotNull List<SQLCondition> conditions) {
+        for (SQLCondition condition : conditions) {
+            if (!this.matches(id, row, condition)) return false;
+        }
+        return true;
+    }
+
+    private boolean matches(long id, @NotNull Map<String, Object> row, @NotNull SQLCondition condition) {
+        String name = condition.getValue().getColumn().getName();
+        boolean lowerCase = name.startsWith("LOWER(") && name.endsWith(")");
+        if (lowerCase) name = name.substring(6, name.length() - 1);
+
+        Object actual;
+        Object expected;
+        if (isId(name)) {
+            actual = id;
+            expected = normalize(TYPE_LONG, condition.getValue().getRawValue());
+        }
+        else {
+            String column = this.getColumn(name);
+            if (column == null) return false;
+
+            actual = row.get(column);
+            expected = normalize(this.getType(column), condition.getValue().getRawValue());
+        }
+        if (actual == null) return false;
+
+        if (lowerCase) {
+            actual = String.valueOf(actual).toLowerCase();
+            expected = String.valueOf(expected).toLowerCase();
+        }
+
+        int compare = compare(actual, expected);
+        return switch (condition.getType()) {
+            case EQUAL -> compare == 0;
+            case NOT_EQUAL -> compare != 0;
+            case GREATER -> compare > 0;
+            case SMALLER -> compare < 0;
+        };
+    }
+
+    static int compare(@NotNull Object first, @NotNull Object second) {
+        if (first instanceof Number a && second instanceof Number b) {
+            if (isIntegral(a) && isIntegral(b)) return Long.compare(a.longValue(), b.longValue());
+            return Double.compare(a.doubleValue(), b.doubleValue());
+        }
+        if (first instanceof byte[] a && second instanceof byte[] b) return Arrays.compare(a, b);
+        if (first instanceof Boolean a && second instanceof Boolean b) return Boolean.compare(a, b);
+
+        return String.valueOf(first).compareTo(String.valueOf(second));
+    }
+
+    private static boolean isIntegral(@NotNull Number number) {
+        return number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte;
+    }
+
+    /**
+     * Converts value to the Java type of the column, so it's stored and compared the same way as in SQL databases.
+     * Values that can not be converted are stored as strings.
+     */
+    @Nullable
+    static Object normalize(byte type, @Nullable Object value) {
+        if (value == null) return null;
+
+        try {
+            return switch (type) {
+                case TYPE_INTEGER -> value instanceof Number number ? Integer.valueOf(number.intValue()) :
+                    value instanceof Boolean bool ? Integer.valueOf(bool ? 1 : 0) : Integer.valueOf(String.valueOf(value).trim());
+                case TYPE_LONG -> value instanceof Number number ? Long.valueOf(number.longValue()) :
+                    value instanceof Boolean bool ? Long.valueOf(bool ? 1L : 0L) : Long.valueOf(String.valueOf(value).trim());
+                case TYPE_DOUBLE -> value instanceof Number number ? Double.valueOf(number.doubleValue()) : Double.valueOf(String.valueOf(value).trim());
+                case TYPE_BOOLEAN -> {
+                    if (value instanceof Boolean bool) yield bool;
+                    if (value instanceof Number number) yield number.doubleValue() != 0D;
+                    String string = String.valueOf(value).trim();
+                    if (string.equalsIgnoreCase("true") || string.equals("1")) yield Boolean.TRUE;
+                    if (string.equalsIgnoreCase("false") || string.equals("0")) yield Boolean.FALSE;
+                    yield string;
+                }
+                case TYPE_BYTES -> value instanceof byte[] ? value : String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+                default -> value instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : String.valueOf(value);
+            };
+        }
+        catch (NumberFormatException exception) {
+            return String.valueOf(value);
+        }
+    }
+
+    @Nullable
+    Object normalize(@NotNull SQLColumn column, @Nullable Object value) {
+        String name = this.getColumn(column.getName());
+        return normalize(name == null ? typeOf(column.getType()) : this.getType(name), value);
+    }
+
+    /**
+     * Index of the table columns. Only unique indexes keep their keys, other ones are kept for the schema checks.
+     * Rows with null values in the indexed columns are not indexed, as in SQL databases.
+     */
+    record Index(@NotNull String name, @NotNull List<String> columns, boolean unique, @NotNull Map<Object, Long> keys) {
+
+        @Nullable
+        Object keyOf(@NotNull Map<String, Object> row) {
+            if (this.columns.size() == 1) return keyOf(row.get(this.columns.get(0)));
+
+            List<Object> key = new ArrayList<>(this.columns.size());
+            for (String column : this.columns) {
+                Object value = keyOf(row.get(column));
+                if (value == null) return null;
+                key.add(value);
+            }
+            return key;
+        }
+
+        @Nullable
+        static Object keyOf(@Nullable Object value) {
+            // Arrays have identity hash codes.
+            if (value instanceof byte[] bytes) return ByteBuffer.wrap(bytes);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,1067 @@
+package t.me.p1azmer.engine.api.data.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.util.Calendar;
+import java.util.Map;
+
+/**
+ * Read-only {@link ResultSet} over values that are already in memory, so the same data functions can be used for
+ * SQL and non-SQL storages. Only column getters are supported, other methods throw {@link SQLFeatureNotSupportedException}.
+ * <br>
+ * Values are converted to the requested type the same way as JDBC drivers do for the SQL storages.
+ */
+abstract class ResultSetAdapter implements ResultSet {
+
+    private boolean wasNull;
+    private boolean closed;
+
+    /**
+     * @param columnIndex Column index, starting from 1.
+     * @return Column value, or null if it's not set.
+     * @throws SQLException If there is no such column.
+     */
+    @Nullable
+    abstract Object getValue(int columnIndex) throws SQLException;
+
+    /**
+     * @param columnLabel Column name, case-insensitive.
+     * @return Column value, or null if it's not set.
+     * @throws SQLException If there is no such column.
+     */
+    @Nullable
+    abstract Object getValue(@NotNull String columnLabel) throws SQLException;
+
+    @Nullable
+    private Object read(@Nullable Object value) {
+        this.wasNull = value == null;
+        return value;
+    }
+
+    @Override
+    public boolean next() throws SQLException {
+        return false;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        this.closed = true;
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return this.closed;
+    }
+
+    @Override
+    public boolean wasNull() throws SQLException {
+        return this.wasNull;
+    }
+
+    @Override
+    public String getString(int columnIndex) throws SQLException {
+        return toString(this.read(this.getValue(columnIndex)));
+    }
+
+    @Override
+    public String getString(String columnLabel) throws SQLException {
+        return toString(this.read(this.getValue(columnLabel)));
+    }
+
+    @Override
+    public String getNString(int columnIndex) throws SQLException {
+        return this.getString(columnIndex);
+    }
+
+    @Override
+    public String getNString(String columnLabel) throws SQLException {
+        return this.getString(columnLabel);
+    }
+
+    @Override
+    public boolean getBoolean(int columnIndex) throws SQLException {
+        return toBoolean(this.read(this.getValue(columnIndex)));
+    }
+
+    @Override
+    public boolean getBoolean(String columnLabel) throws SQLException {
+        return toBoolean(this.read(this.getValue(columnLabel)));
+    }
+
+    @Override
+    public byte getByte(int columnIndex) throws SQLException {
+        return toNumber(this.read(this.getValue(columnIndex))).byteValue();
+    }
+
+    @Override
+    public byte getByte(String columnLabel) throws SQLException {
+        return toNumber(this.read(this.getValue(columnLabel))).byteValue();
+    }
+
+    @Override
+    public short getShort(int columnIndex) throws SQLException {
+        return toNumber(this.read(this.getValue(columnIndex))).shortValue();
+    }
+
+    @Override
+    public short getShort(String columnLabel) throws SQLException {
+        return toNumber(this.read(this.getValue(columnLabel))).shortValue();
+    }
+
+    @Override
+    public int getInt(int columnIndex) throws SQLException {
+        return toNumber(this.read(this.getValue(columnIndex))).intValue();
+    }
+
+    @Override
+    public int getInt(String columnLabel) throws SQLException {
+        return toNumber(this.read(this.getValue(columnLabel))).intValue();
+    }
+
+    @Override
+    public long getLong(int columnIndex) throws SQLException {
+        return toNumber(this.read(this.getValue(columnIndex))).longValue();
+    }
+
+    @Override
+    public long getLong(String columnLabel) throws SQLException {
+        return toNumber(this.read(this.getValue(columnLabel))).longValue();
+    }
+
+    @Override
+    public float getFloat(int columnIndex) throws SQLException {
+        return toNumber(this.read(this.getValue(columnIndex))).floatValue();
+    }
+
+    @Override
+    public float getFloat(String columnLabel) throws SQLException {
+        return toNumber(this.read(this.getValue(columnLabel))).floatValue();
+    }
+
+    @Override
+    public double getDouble(int columnIndex) throws SQLException {
+        return toNumber(this.read(this.getValue(columnIndex))).doubleValue();
+    }
+
+    @Override
+    public double getDouble(String columnLabel) throws SQLException {
+        return toNumber(this.read(this.getValue(columnLabel))).doubleValue();
+    }
+
+    @Override
+    public byte[] getBytes(int columnIndex) throws SQLException {
+        return toBytes(this.read(this.getValue(columnIndex)));
+    }
+
+    @Override
+    public byte[] getBytes(String columnLabel) throws SQLException {
+        return toBytes(this.read(this.getValue(columnLabel)));
+    }
+
+    @Override
+    public Object getObject(int columnIndex) throws SQLException {
+        return this.read(this.getValue(columnIndex));
+    }
+
+    @Override
+    public Object getObject(String columnLabel) throws SQLException {
+        return this.read(this.getValue(columnLabel));
+    }
+
+    @Override
+    public <T> T getObject(int columnIndex, Class<T> type) throws SQLException {
+        return convert(this.read(this.getValue(columnIndex)), type);
+    }
+
+    @Override
+    public <T> T getObject(String columnLabel, Class<T> type) throws SQLException {
+        return convert(this.read(this.getValue(columnLabel)), type);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) return iface.cast(this);
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this);
+    }
+
+    @Deprecated
+    @Override
+    public BigDecimal getBigDecimal(int columnIndex, int scale) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Date getDate(int columnIndex) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Time getTime(int columnIndex) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Timestamp getTimestamp(int columnIndex) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public InputStream getAsciiStream(int columnIndex) throws SQLException {
+        throw unsupported();
+    }
+
+    @Deprecated
+    @Override
+    public InputStream getUnicodeStream(int columnIndex) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public InputStream getBinaryStream(int columnIndex) throws SQLException {
+        throw unsupported();
+    }
+
+    @Deprecated
+    @Override
+    public BigDecimal getBigDecimal(String columnLabel, int scale) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Date getDate(String columnLabel) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Time getTime(String columnLabel) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Timestamp getTimestamp(String columnLabel) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public InputStream getAsciiStream(String columnLabel) throws SQLException {
+        throw unsupported();
+    }
+
+    @Deprecated
+    @Override
+    public InputStream getUnicodeStream(String columnLabel) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public InputStream getBinaryStream(String columnLabel) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public String getCursorName() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public ResultSetMetaData getMetaData() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Reader getCharacterStream(int columnIndex) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Reader getCharacterStream(String columnLabel) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(int columnIndex) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(String columnLabel) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean isBeforeFirst() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean isAfterLast() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean isFirst() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean isLast() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void beforeFirst() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void afterLast() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean first() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean last() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public int getRow() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean absolute(int row) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean relative(int rows) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean previous() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setFetchDirection(int direction) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public int getFetchDirection() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void setFetchSize(int rows) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public int getFetchSize() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public int getType() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public int getConcurrency() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean rowUpdated() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean rowInserted() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean rowDeleted() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateNull(int columnIndex) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateBoolean(int columnIndex, boolean x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateByte(int columnIndex, byte x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateShort(int columnIndex, short x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateInt(int columnIndex, int x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateLong(int columnIndex, long x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateFloat(int columnIndex, float x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateDouble(int columnIndex, double x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateBigDecimal(int columnIndex, BigDecimal x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateString(int columnIndex, String x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateBytes(int columnIndex, byte x[]) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateDate(int columnIndex, Date x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateTime(int columnIndex, Time x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateTimestamp(int columnIndex, Timestamp x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateAsciiStream(int columnIndex, InputStream x, int length) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateBinaryStream(int columnIndex, InputStream x, int length) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateCharacterStream(int columnIndex, Reader x, int length) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateObject(int columnIndex, Object x, int scaleOrLength) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateObject(int columnIndex, Object x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateNull(String columnLabel) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateBoolean(String columnLabel, boolean x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateByte(String columnLabel, byte x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateShort(String columnLabel, short x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateInt(String columnLabel, int x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateLong(String columnLabel, long x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateFloat(String columnLabel, float x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateDouble(String columnLabel, double x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateBigDecimal(String columnLabel, BigDecimal x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateString(String columnLabel, String x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateBytes(String columnLabel, byte x[]) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateDate(String columnLabel, Date x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateTime(String columnLabel, Time x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateTimestamp(String columnLabel, Timestamp x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateAsciiStream(String columnLabel, InputStream x, int length) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateBinaryStream(String columnLabel, InputStream x, int length) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateCharacterStream(String columnLabel, Reader reader, int length) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateObject(String columnLabel, Object x, int scaleOrLength) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateObject(String columnLabel, Object x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void insertRow() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateRow() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void deleteRow() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void refreshRow() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void cancelRowUpdates() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void moveToInsertRow() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void moveToCurrentRow() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Statement getStatement() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Object getObject(int columnIndex, Map<String, Class<?>> map) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Ref getRef(int columnIndex) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Blob getBlob(int columnIndex) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Clob getClob(int columnIndex) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Array getArray(int columnIndex) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Object getObject(String columnLabel, Map<String, Class<?>> map) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Ref getRef(String columnLabel) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Blob getBlob(String columnLabel) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Clob getClob(String columnLabel) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Array getArray(String columnLabel) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Date getDate(int columnIndex, Calendar cal) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Date getDate(String columnLabel, Calendar cal) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Time getTime(int columnIndex, Calendar cal) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Time getTime(String columnLabel, Calendar cal) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Timestamp getTimestamp(int columnIndex, Calendar cal) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Timestamp getTimestamp(String columnLabel, Calendar cal) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public URL getURL(int columnIndex) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public URL getURL(String columnLabel) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateRef(int columnIndex, Ref x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateRef(String columnLabel, Ref x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateBlob(int columnIndex, Blob x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateBlob(String columnLabel, Blob x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateClob(int columnIndex, Clob x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateClob(String columnLabel, Clob x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateArray(int columnIndex, Array x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateArray(String columnLabel, Array x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public RowId getRowId(int columnIndex) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public RowId getRowId(String columnLabel) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateRowId(int columnIndex, RowId x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateRowId(String columnLabel, RowId x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public int getHoldability() throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateNString(int columnIndex, String nString) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateNString(String columnLabel, String nString) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateNClob(int columnIndex, NClob nClob) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateNClob(String columnLabel, NClob nClob) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public NClob getNClob(int columnIndex) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public NClob getNClob(String columnLabel) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public SQLXML getSQLXML(int columnIndex) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public SQLXML getSQLXML(String columnLabel) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateSQLXML(int columnIndex, SQLXML xmlObject) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateSQLXML(String columnLabel, SQLXML xmlObject) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Reader getNCharacterStream(int columnIndex) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public Reader getNCharacterStream(String columnLabel) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateNCharacterStream(int columnIndex, Reader x, long length) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateNCharacterStream(String columnLabel, Reader reader, long length) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateAsciiStream(int columnIndex, InputStream x, long length) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateBinaryStream(int columnIndex, InputStream x, long length) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateCharacterStream(int columnIndex, Reader x, long length) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateAsciiStream(String columnLabel, InputStream x, long length) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateBinaryStream(String columnLabel, InputStream x, long length) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateCharacterStream(String columnLabel, Reader reader, long length) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateBlob(int columnIndex, InputStream inputStream, long length) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateBlob(String columnLabel, InputStream inputStream, long length) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateClob(int columnIndex, Reader reader, long length) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateClob(String columnLabel, Reader reader, long length) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateNClob(int columnIndex, Reader reader, long length) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateNClob(String columnLabel, Reader reader, long length) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateNCharacterStream(int columnIndex, Reader x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateNCharacterStream(String columnLabel, Reader reader) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateAsciiStream(int columnIndex, InputStream x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateBinaryStream(int columnIndex, InputStream x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateCharacterStream(int columnIndex, Reader x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateAsciiStream(String columnLabel, InputStream x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateBinaryStream(String columnLabel, InputStream x) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateCharacterStream(String columnLabel, Reader reader) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateBlob(int columnIndex, InputStream inputStream) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateBlob(String columnLabel, InputStream inputStream) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateClob(int columnIndex, Reader reader) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateClob(String columnLabel, Reader reader) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateNClob(int columnIndex, Reader reader) throws SQLException {
+        throw unsupported();
+    }
+
+    @Override
+    public void updateNClob(String columnLabel, Reader reader) throws SQLException {
+        throw unsupported();
+    }
+
+    @NotNull
+    private static SQLFeatureNotSupportedException unsupported() {
+        return new SQLFeatureNotSupportedException("Operation is not supported by the storage.");
+    }
+
+    @Nullable
+    private static String toString(@Nullable Object value) {
+        if (value == null) return null;
+        return value instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : String.valueOf(value);
+    }
+
+    @Nullable
+    private static byte[] toBytes(@Nullable Object value) {
+        if (value == null) return null;
+        return value instanceof byte[] bytes ? bytes : String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @NotNull
+    private static Number toNumber(@Nullable Object value) throws SQLException {
+        if (value == null) return 0;
+        if (value instanceof Number number) return number;
+        if (value instanceof Boolean bool) return bool ? 1 : 0;
+
+        String string = toString(value).trim();
+        try {
+            return Long.parseLong(string);
+        }
+        catch (NumberFormatException ignored) {
+            // Not an integral number.
+        }
+        try {
+            return Double.parseDouble(string);
+        }
+        catch (NumberFormatException exception) {
+            throw new SQLException("Value '" + string + "' is not a number.", exception);
+        }
+    }
+
+    private static boolean toBoolean(@Nullable Object value) throws SQLException {
+        if (value == null) return false;
+        if (value instanceof Boolean bool) return bool;
+        if (value instanceof Number number) return number.doubleValue() != 0D;
+
+        String string = String.valueOf(value).trim();
+        if (string.equalsIgnoreCase("true")) return true;
+        if (string.equalsIgnoreCase("false")) return false;
+        return toNumber(string).doubleValue() != 0D;
+    }
+
+    @Nullable
+    private static <T> T convert(@Nullable Object value, @NotNull Class<T> type) throws SQLException {
+        if (value == null || type.isInstance(value)) return type.cast(value);
+
+        Object result;
+        if (type == String.class) result = toString(value);
+        else if (type == byte[].class) result = toBytes(value);
+        else if (type == Integer.class) result = toNumber(value).intValue();
+        else if (type == Long.class) result = toNumber(value).longValue();
+        else if (type == Double.class) result = toNumber(value).doubleValue();
+        else if (type == Float.class) result = toNumber(value).floatValue();
+        else if (type == Boolean.class) result = toBoolean(value);
+        else throw new SQLException("Can not convert " + value.getClass().getSimpleName() + " to " + type.getSimpleName());
+        return type.cast(result);
+    }
+}
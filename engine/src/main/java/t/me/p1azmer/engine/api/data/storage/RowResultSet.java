@@ -0,0 +1,73 @@
+package t.me.p1azmer.engine.api.data.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Read-only {@link ResultSet} view of a single {@link LogTable} row, so the same data functions can be used for
+ * SQL and non-SQL storages.
+ * <br>
+ * One instance can be reused for multiple rows within a single thread.
+ */
+final class RowResultSet extends ResultSetAdapter {
+
+    private final String              table;
+    private final List<String>        columns;
+    private final Map<String, String> realNames;
+
+    private long                id;
+    private Map<String, Object> row;
+
+    RowResultSet(@NotNull LogDataStorage.Selection selection) {
+        this.table = selection.table();
+        this.columns = selection.columns();
+        this.realNames = selection.realNames();
+    }
+
+    @NotNull
+    ResultSet of(long id, @NotNull Map<String, Object> row) {
+        this.id = id;
+        this.row = row;
+        return this;
+    }
+
+    @Override
+    @Nullable
+    Object getValue(int columnIndex) throws SQLException {
+        if (columnIndex < 1 || columnIndex > this.columns.size()) throw new SQLException("Column index out of range: " + columnIndex);
+
+        return this.getValue(this.columns.get(columnIndex - 1));
+    }
+
+    @Override
+    @Nullable
+    Object getValue(@NotNull String columnLabel) throws SQLException {
+        if (LogTable.isId(columnLabel)) return this.id;
+
+        // Labels are mostly the same as the selected names, so case conversion is rarely needed.
+        String real = this.realNames.get(columnLabel);
+        if (real == null) real = this.realNames.get(columnLabel.toLowerCase(Locale.ROOT));
+        if (real == null) throw new SQLException("Column '" + columnLabel + "' not found.");
+
+        return this.row.get(real);
+    }
+
+    @Override
+    public int findColumn(String columnLabel) throws SQLException {
+        for (int index = 0; index < this.columns.size(); index++) {
+            if (this.columns.get(index).equalsIgnoreCase(columnLabel)) return index + 1;
+        }
+        throw new SQLException("Column '" + columnLabel + "' not found.");
+    }
+
+    @Override
+    public String toString() {
+        return "RowResultSet [table=" + this.table + ", id=" + this.id + "]";
+    }
+}
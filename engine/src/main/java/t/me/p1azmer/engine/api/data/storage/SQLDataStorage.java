@@ -0,0 +1,192 @@
+package t.me.p1azmer.engine.api.data.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import t.me.p1azmer.engine.api.data.StorageType;
+import t.me.p1azmer.engine.api.data.connection.AbstractDataConnector;
+import t.me.p1azmer.engine.api.data.sql.SQLColumn;
+import t.me.p1azmer.engine.api.data.sql.SQLCondition;
+import t.me.p1azmer.engine.api.data.sql.SQLQueries;
+import t.me.p1azmer.engine.api.data.sql.SQLStatementPlan;
+import t.me.p1azmer.engine.api.data.sql.SQLValue;
+import t.me.p1azmer.engine.api.data.sql.executor.*;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Storage backend for the SQL databases, based on the query executors.
+ */
+public class SQLDataStorage implements DataStorage {
+
+    private final AbstractDataConnector connector;
+    private final StorageType           storageType;
+
+    public SQLDataStorage(@NotNull AbstractDataConnector connector, @NotNull StorageType storageType) {
+        this.connector = connector;
+        this.storageType = storageType;
+    }
+
+    @NotNull
+    public AbstractDataConnector getConnector() {
+        return connector;
+    }
+
+    @Override
+    public boolean isShared() {
+        return this.storageType == StorageType.MYSQL;
+    }
+
+    @Override
+    public void close() {
+        this.connector.close();
+    }
+
+    @Override
+    public boolean hasTable(@NotNull String table) {
+        return SQLQueries.hasTable(this.connector, table);
+    }
+
+    @Override
+    public boolean hasColumn(@NotNull String table, @NotNull SQLColumn column) {
+        return SQLQueries.hasColumn(this.connector, table, column);
+    }
+
+    @Override
+    public void createTable(@NotNull String table, @NotNull List<SQLColumn> columns) {
+        CreateTableExecutor.builder(table, this.storageType).columns(columns).execute(this.connector);
+    }
+
+    @Override
+    public void renameTable(@NotNull String from, @NotNull String to) {
+        RenameTableExecutor.builder(from, this.storageType).renameTo(to).execute(this.connector);
+    }
+
+    @Override
+    public void addColumns(@NotNull String table, @NotNull List<SQLValue> columns) {
+        AlterTableExecutor.builder(table, this.storageType).addColumn(columns).execute(this.connector);
+    }
+
+    @Override
+    public void renameColumns(@NotNull String table, @NotNull List<SQLValue> columns) {
+        AlterTableExecutor.builder(table, this.storageType).renameColumn(columns).execute(this.connector);
+    }
+
+    @Override
+    public void dropColumns(@NotNull String table, @NotNull List<SQLColumn> columns) {
+        AlterTableExecutor.builder(table, this.storageType).dropColumn(columns).execute(this.connector);
+    }
+
+    @Override
+    public boolean createIndex(@NotNull String table, @NotNull String index, @NotNull List<SQLColumn> columns, boolean unique) {
+        return CreateIndexExecutor.builder(table, index, this.storageType).columns(columns).unique(unique).execute(this.connector);
+    }
+
+    @Override
+    public void insert(@NotNull String table, @NotNull List<SQLValue> values) {
+        InsertQueryExecutor.builder(table).values(values).execute(this.connector);
+    }
+
+    @Override
+    public void update(@NotNull String table, @NotNull List<SQLValue> values, @NotNull List<SQLCondition> conditions) {
+        UpdateQueryExecutor.builder(table).values(values).where(conditions).execute(this.connector);
+    }
+
+    @Override
+    public void delete(@NotNull String table, @NotNull List<SQLCondition> conditions) {
+        DeleteQueryExecutor.builder(table).where(conditions).execute(this.connector);
+    }
+
+    @Override
+    public int upsert(@NotNull String table, @NotNull List<SQLValue> values, @NotNull List<SQLColumn> keys, boolean insertOnly) {
+        return UpsertQueryExecutor.builder(table, this.storageType).values(values).keys(keys).insertOnly(insertOnly).execute(this.connector);
+    }
+
+    @Override
+    public boolean updateBatch(@NotNull String table, @NotNull List<Update> updates) {
+        Map<SQLStatementPlan, List<List<Object>>> batches = new LinkedHashMap<>();
+        for (Update update : updates) {
+            UpdateQueryExecutor executor = UpdateQueryExecutor.builder(table).values(update.values()).where(update.conditions());
+            batches.computeIfAbsent(executor.getPlan(), k -> new ArrayList<>()).add(executor.getParameters());
+        }
+        return SQLQueries.executeBatch(this.connector, batches);
+    }
+
+    @Override
+    @Nullable
+    public int[] deleteBatch(@NotNull String table, @NotNull List<List<SQLCondition>> conditions) {
+        Map<SQLStatementPlan, List<List<Object>>> batches = new LinkedHashMap<>();
+        Map<SQLStatementPlan, List<Integer>> positions = new HashMap<>();
+        for (int index = 0; index < conditions.size(); index++) {
+            List<SQLCondition> wheres = conditions.get(index);
+            SQLStatementPlan plan = DeleteQueryExecutor.builder(table).where(wheres).getPlan();
+            batches.computeIfAbsent(plan, k -> new ArrayList<>()).add(wheres.stream().map(where -> where.getValue().getRawValue()).toList());
+            positions.computeIfAbsent(plan, k -> new ArrayList<>()).add(index);
+        }
+
+        List<int[]> counts = SQLQueries.executeBatchCounts(this.connector, batches);
+        if (counts == null) return null;
+
+        // Statements are grouped by their plans, so counts are put back in order of the condition sets.
+        int[] deleted = new int[conditions.size()];
+        int planIndex = 0;
+        for (SQLStatementPlan plan : batches.keySet()) {
+            int[] planCounts = counts.get(planIndex++);
+            List<Integer> planPositions = positions.get(plan);
+            for (int row = 0; row < planPositions.size() && row < planCounts.length; row++) {
+                deleted[planPositions.get(row)] = planCounts[row];
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    @NotNull
+    public <T> List<T> load(@NotNull String table, @NotNull Function<ResultSet, T> function,
+                            @NotNull List<SQLColumn> columns, @NotNull List<SQLCondition> conditions, int amount) {
+        return SelectQueryExecutor.builder(table, function).columns(columns).where(conditions).amount(amount).execute(this.connector);
+    }
+
+    @Override
+    public <T> int loadEach(@NotNull String table, @NotNull Function<ResultSet, T> function,
+                            @NotNull List<SQLColumn> columns, @NotNull List<SQLCondition> conditions,
+                            int fetchSize, @NotNull Consumer<T> consumer) {
+        return SelectQueryExecutor.builder(table, function).columns(columns).where(conditions)
+            .fetchSize(fetchSize).forEach(this.connector, consumer);
+    }
+
+    @Override
+    @NotNull
+    public <T> Stream<T> stream(@NotNull String table, @NotNull Function<ResultSet, T> function,
+                                @NotNull List<SQLColumn> columns, @NotNull List<SQLCondition> conditions, int fetchSize) {
+        return SelectQueryExecutor.builder(table, function).columns(columns).where(conditions)
+            .fetchSize(fetchSize).stream(this.connector);
+    }
+
+    @Override
+    public long count(@NotNull String table) {
+        return this.selectLong("SELECT COUNT(*) FROM `" + table + "`");
+    }
+
+    @Override
+    public long max(@NotNull String table, @NotNull SQLColumn column) {
+        return this.selectLong("SELECT MAX(" + column.getNameEscaped() + ") FROM `" + table + "`");
+    }
+
+    private long selectLong(@NotNull String sql) {
+        List<Long> result = SQLQueries.executeQuery(this.connector, sql, Collections.emptyList(), resultSet -> {
+            try {
+                return resultSet.getLong(1);
+            }
+            catch (SQLException exception) {
+                exception.printStackTrace();
+                return 0L;
+            }
+        }, 1);
+        return result.isEmpty() ? 0L : result.get(0);
+    }
+}
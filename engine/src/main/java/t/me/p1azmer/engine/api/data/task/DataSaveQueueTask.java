@@ -0,0 +1,21 @@
+package t.me.p1azmer.engine.api.data.task;
+
+import org.jetbrains.annotations.NotNull;
+import t.me.p1azmer.engine.NexPlugin;
+import t.me.p1azmer.engine.api.data.UserSaveQueue;
+import t.me.p1azmer.engine.api.server.AbstractTask;
+
+public class DataSaveQueueTask<P extends NexPlugin<P>> extends AbstractTask<P> {
+
+    private final UserSaveQueue<P, ?> saveQueue;
+
+    public DataSaveQueueTask(@NotNull P plugin, @NotNull UserSaveQueue<P, ?> saveQueue, int interval) {
+        super(plugin, interval, true);
+        this.saveQueue = saveQueue;
+    }
+
+    @Override
+    public void action() {
+        this.saveQueue.flush();
+    }
+}
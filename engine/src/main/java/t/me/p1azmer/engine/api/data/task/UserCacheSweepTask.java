@@ -0,0 +1,21 @@
+package t.me.p1azmer.engine.api.data.task;
+
+import org.jetbrains.annotations.NotNull;
+import t.me.p1azmer.engine.NexPlugin;
+import t.me.p1azmer.engine.api.data.AbstractUserManager;
+import t.me.p1azmer.engine.api.server.AbstractTask;
+
+public class UserCacheSweepTask<P extends NexPlugin<P>> extends AbstractTask<P> {
+
+    private final AbstractUserManager<P, ?> userManager;
+
+    public UserCacheSweepTask(@NotNull AbstractUserManager<P, ?> userManager, int interval) {
+        super(userManager.plugin(), interval, true);
+        this.userManager = userManager;
+    }
+
+    @Override
+    public void action() {
+        this.userManager.evictExpired();
+    }
+}
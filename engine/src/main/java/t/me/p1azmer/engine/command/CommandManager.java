@@ -4,8 +4,10 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import t.me.p1azmer.engine.NexPlugin;
 import t.me.p1azmer.engine.api.command.GeneralCommand;
+import t.me.p1azmer.engine.api.data.UserDataHolder;
 import t.me.p1azmer.engine.api.manager.AbstractManager;
 import t.me.p1azmer.engine.command.list.AboutSubCommand;
+import t.me.p1azmer.engine.command.list.DataStatsSubCommand;
 import t.me.p1azmer.engine.command.list.HelpSubCommand;
 import t.me.p1azmer.engine.utils.ArrayUtil;
 
@@ -39,6 +41,9 @@ public class CommandManager<P extends NexPlugin<P>> extends AbstractManager<P> {
         if (!this.plugin.isEngine()) {
             this.mainCommand.addChildren(new AboutSubCommand<>(this.plugin));
         }
+        if (this.plugin instanceof UserDataHolder<?, ?> dataHolder) {
+            this.mainCommand.addChildren(new DataStatsSubCommand<>(this.plugin, dataHolder));
+        }
 
         // Register main command as a bukkit command.
         this.registerCommand(this.mainCommand);
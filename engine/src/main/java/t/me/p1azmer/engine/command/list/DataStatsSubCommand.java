@@ -0,0 +1,76 @@
+package t.me.p1azmer.engine.command.list;
+
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+import t.me.p1azmer.engine.NexPlugin;
+import t.me.p1azmer.engine.api.command.AbstractCommand;
+import t.me.p1azmer.engine.api.command.CommandFlag;
+import t.me.p1azmer.engine.api.command.CommandResult;
+import t.me.p1azmer.engine.api.data.AbstractUserDataHandler;
+import t.me.p1azmer.engine.api.data.AbstractUserManager;
+import t.me.p1azmer.engine.api.data.UserDataHolder;
+import t.me.p1azmer.engine.api.data.connection.DataPoolMetrics;
+import t.me.p1azmer.engine.api.data.storage.LogDataStorage;
+import t.me.p1azmer.engine.api.data.storage.SQLDataStorage;
+import t.me.p1azmer.engine.config.EnginePerms;
+import t.me.p1azmer.engine.lang.EngineLang;
+import t.me.p1azmer.engine.utils.Colorizer;
+import t.me.p1azmer.engine.utils.NumberUtil;
+
+import static t.me.p1azmer.engine.utils.Colors2.*;
+
+public class DataStatsSubCommand<P extends NexPlugin<P>> extends AbstractCommand<P> {
+
+    private static final CommandFlag<Boolean> FLAG_RESET = CommandFlag.booleanFlag("reset");
+
+    private final UserDataHolder<?, ?> dataHolder;
+
+    public DataStatsSubCommand(@NotNull P plugin, @NotNull UserDataHolder<?, ?> dataHolder) {
+        super(plugin, new String[]{"datastats"}, EnginePerms.COMMAND_DATA_STATS);
+        this.dataHolder = dataHolder;
+        this.setDescription(plugin.getMessage(EngineLang.COMMAND_DATA_STATS_DESC));
+        this.addFlag(FLAG_RESET);
+    }
+
+    @Override
+    protected void onExecute(@NotNull CommandSender sender, @NotNull CommandResult result) {
+        AbstractUserDataHandler<?, ?> dataHandler = this.dataHolder.getData();
+        AbstractUserManager<?, ?> userManager = this.dataHolder.getUserManager();
+
+        this.send(sender, LIGHT_YELLOW + BOLD + "Database report for " + LIGHT_ORANGE + plugin.getName() + " (" + dataHandler.getDataType().name() + "):");
+        if (dataHandler.getStorage() instanceof SQLDataStorage storage) {
+            DataPoolMetrics metrics = storage.getConnector().getMetrics();
+            DataPoolMetrics readMetrics = storage.getConnector().getReadMetrics();
+            if (result.hasFlag(FLAG_RESET)) {
+                metrics.reset();
+                if (readMetrics != null) readMetrics.reset();
+            }
+
+            this.pool(sender, readMetrics == null ? "" : "Write ", metrics);
+            if (readMetrics != null) {
+                this.pool(sender, "Read ", readMetrics);
+            }
+        }
+        else if (dataHandler.getStorage() instanceof LogDataStorage storage) {
+            this.line(sender, "Log File", storage.getFile().getName() + " (" + NumberUtil.format(storage.getFile().length() / 1024D) + " KB, " + storage.getRecords() + " records)");
+        }
+        this.line(sender, "Save Queue", dataHandler.isSaveQueueEnabled() ? dataHandler.getSaveQueue().size() + " users" : "Disabled");
+        this.line(sender, "Cached Users", userManager.getUsersLoadedMap().size() + " (" + userManager.getScheduledEvictionCount() + " scheduled, " + userManager.getEvictionCount() + " evicted)");
+    }
+
+    private void pool(@NotNull CommandSender sender, @NotNull String prefix, @NotNull DataPoolMetrics metrics) {
+        this.line(sender, prefix + "Connections", metrics.getActiveConnections() + " active, " + metrics.getIdleConnections() + " idle, " + metrics.getTotalConnections() + "/" + metrics.getMaxPoolSize() + " total");
+        this.line(sender, prefix + "Awaiting Threads", String.valueOf(metrics.getAwaitingThreads()));
+        this.line(sender, prefix + "Acquire Wait", NumberUtil.format(metrics.getAcquireAverageMillis()) + " ms avg, " + NumberUtil.format(metrics.getAcquireMaxMillis()) + " ms max (" + metrics.getAcquireCount() + " total)");
+        this.line(sender, prefix + "Connection Usage", NumberUtil.format(metrics.getUsageAverageMillis()) + " ms avg, " + metrics.getUsageMaxMillis() + " ms max");
+        this.line(sender, prefix + "Timeouts", (metrics.getTimeouts() > 0 ? LIGHT_RED : LIGHT_ORANGE) + metrics.getTimeouts());
+    }
+
+    private void line(@NotNull CommandSender sender, @NotNull String name, @NotNull String value) {
+        this.send(sender, LIGHT_ORANGE + "▪ " + LIGHT_YELLOW + name + ": " + LIGHT_ORANGE + value);
+    }
+
+    private void send(@NotNull CommandSender sender, @NotNull String text) {
+        sender.sendMessage(Colorizer.apply(text));
+    }
+}
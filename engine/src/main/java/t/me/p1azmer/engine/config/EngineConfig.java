@@ -14,12 +14,38 @@ public class EngineConfig {
             "until removed and needs to be loaded from the database again.",
             "[Default is 300 (5 minutes)]");
 
+    public static final JOption<Integer> USER_CACHE_SWEEP_INTERVAL = JOption.create("UserData.Cache.Sweep_Interval",
+            1,
+            "Sets how often (in seconds) expired user data will be removed from the cache.",
+            "[Default is 1]");
+
     public static final JOption<Boolean> USER_CACHE_NAME_AND_UUID = JOption.create("UserData.Cache.Names_And_UUIDs",
             true,
             "Sets whether or not plugin will cache player names and UUIDs.",
             "This will improve database performance when checking if user exists, but will increase memory usage.",
             "[Default is true]");
 
+    public static final JOption<Boolean> USER_EXISTENCE_FILTER_ENABLED = JOption.create("UserData.Existence_Filter.Enabled",
+            false,
+            "Used only when 'Names_And_UUIDs' cache is disabled.",
+            "Keeps a compact probabilistic filter of player names and UUIDs to check if user exists.",
+            "Players that are surely not in the database (new players) will not cause database queries on login.",
+            "[Default is false]");
+
+    public static final JOption<Double> USER_EXISTENCE_FILTER_FALSE_POSITIVE_RATE = JOption.create("UserData.Existence_Filter.False_Positive_Rate",
+            0.01D,
+            "Chance that filter will consider unknown player as existing one, so database will be checked.",
+            "Lower values use more memory.",
+            "[Default is 0.01]");
+
+    public static final JOption<Boolean> USER_STRICT_ASYNC_LOAD = JOption.create("UserData.Strict_Async_Load",
+            false,
+            "When enabled, lookups of offline users by name or UUID on the main thread will not query the database.",
+            "Instead, loading will be started asynchronously and nothing will be returned until it's cached.",
+            "Data of online players is loaded on login. If it's missing anyway, it's still loaded on the main thread",
+            "and a warning is logged, so changes made to it are never lost.",
+            "[Default is false]");
+
     public static final JOption<Integer> TAB_COMPLETER_REGEX_MAX_LENGTH = JOption.create("TabCompleter.Regex_Max_Length",
             32,
             "Sets maximal length for input text to use a regex based search (aka smart tab-completer).",
@@ -38,4 +64,10 @@ public class EngineConfig {
             "This is useful if you want to use custom player nicknames in commands.",
             "(Works only for NexEngine based plugins.)",
             "[Default is false]");
+
+    public static final JOption<Integer> ACTIONS_PARAM_CACHE_SIZE = JOption.create("Actions.Param_Cache.Size",
+            4096,
+            "Sets how many parsed action lines will be cached for the Actions Engine.",
+            "Lines are cached before placeholders are set, so this value should exceed amount of the configured action lines.",
+            "[Default is 4096]");
 }
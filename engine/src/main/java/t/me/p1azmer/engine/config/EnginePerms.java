@@ -5,4 +5,5 @@ import t.me.p1azmer.engine.api.server.JPermission;
 public class EnginePerms {
 
     public static final JPermission COMMAND_CHECK_PERM = new JPermission("pzengine.command.checkperm");
+    public static final JPermission COMMAND_DATA_STATS = new JPermission("pzengine.command.datastats");
 }
\ No newline at end of file
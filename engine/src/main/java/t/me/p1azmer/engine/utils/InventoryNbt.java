@@ -0,0 +1,169 @@
+package t.me.p1azmer.engine.utils;
+
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.util.Base64;
+import java.util.stream.IntStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Serializes whole inventories into a single binary payload.
+ * <br>
+ * Payload layout: format byte, then (possibly deflated) body of
+ * inventory size, amount of stored items and [slot, length, item NBT] for each non-empty slot.
+ * Item NBT is length-prefixed, so large inventories can be decoded in parallel.
+ */
+public class InventoryNbt {
+
+    /** Prefix of the Base64 encoded inventories. */
+    public static final String PREFIX_BASE64 = "INV:";
+
+    private static final byte FORMAT_PLAIN    = 1;
+    private static final byte FORMAT_DEFLATED = 2;
+
+    private static final int PARALLEL_THRESHOLD = 64;
+    /** Upper bound of the decoded inventory size, larger values are treated as corrupted data. */
+    private static final int MAX_SIZE           = 1 << 16;
+
+    @Nullable
+    public static String compress(@NotNull ItemStack[] items) {
+        byte[] bytes = encode(items);
+        if (bytes == null) return null;
+
+        return PREFIX_BASE64 + Base64.getEncoder().encodeToString(bytes);
+    }
+
+    @NotNull
+    public static ItemStack[] decompress(@NotNull String compressed) {
+        if (!compressed.startsWith(PREFIX_BASE64)) return new ItemStack[0];
+
+        try {
+            return decode(Base64.getDecoder().decode(compressed.substring(PREFIX_BASE64.length())));
+        }
+        catch (IllegalArgumentException exception) {
+            exception.printStackTrace();
+            return new ItemStack[0];
+        }
+    }
+
+    @Nullable
+    public static byte[] encode(@NotNull ItemStack[] items) {
+        return encode(items, true);
+    }
+
+    /**
+     * Writes all the inventory items to a single payload. Empty slots are skipped, but inventory size is kept.
+     *
+     * @param items   Inventory contents.
+     * @param deflate Whether payload should be compressed.
+     * @return Encoded inventory or null if any of the items could not be written.
+     */
+    @Nullable
+    public static byte[] encode(@NotNull ItemStack[] items, boolean deflate) {
+        int[] slots = new int[items.length];
+        byte[][] data = new byte[items.length][];
+        int count = 0;
+
+        for (int slot = 0; slot < items.length; slot++) {
+            ItemStack item = items[slot];
+            if (item == null || item.getType().isAir()) continue;
+
+            byte[] bytes = ItemNbt.toBytes(item);
+            if (bytes == null) return null;
+
+            slots[count] = slot;
+            data[count++] = bytes;
+        }
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(256 + count * 128);
+        outputStream.write(deflate ? FORMAT_DEFLATED : FORMAT_PLAIN);
+
+        Deflater deflater = deflate ? new Deflater(Deflater.BEST_SPEED) : null;
+        try (DataOutputStream dataOutput = new DataOutputStream(deflater == null ? outputStream : new DeflaterOutputStream(outputStream, deflater))) {
+            dataOutput.writeInt(items.length);
+            dataOutput.writeInt(count);
+            for (int index = 0; index < count; index++) {
+                dataOutput.writeInt(slots[index]);
+                dataOutput.writeInt(data[index].length);
+                dataOutput.write(data[index]);
+            }
+        }
+        catch (IOException exception) {
+            exception.printStackTrace();
+            return null;
+        }
+        finally {
+            if (deflater != null) deflater.end();
+        }
+        return outputStream.toByteArray();
+    }
+
+    @NotNull
+    public static ItemStack[] decode(byte[] bytes) {
+        return decode(bytes, true);
+    }
+
+    /**
+     * Reads inventory contents from a payload produced by {@link #encode(ItemStack[])}.
+     *
+     * @param bytes    Encoded inventory.
+     * @param parallel Whether large inventories may be decoded using multiple threads.
+     * @return Inventory contents with items placed at their original slots.
+     */
+    @NotNull
+    public static ItemStack[] decode(byte[] bytes, boolean parallel) {
+        if (bytes.length == 0) return new ItemStack[0];
+
+        byte format = bytes[0];
+        if (format != FORMAT_PLAIN && format != FORMAT_DEFLATED) return new ItemStack[0];
+
+        InputStream inputStream = new ByteArrayInputStream(bytes, 1, bytes.length - 1);
+        if (format == FORMAT_DEFLATED) {
+            inputStream = new InflaterInputStream(inputStream);
+        }
+
+        int[] slots;
+        byte[][] data;
+        ItemStack[] items;
+        try (DataInputStream dataInput = new DataInputStream(inputStream)) {
+            int size = dataInput.readInt();
+            int count = dataInput.readInt();
+            if (size < 0 || size > MAX_SIZE || count < 0 || count > size) return new ItemStack[0];
+
+            items = new ItemStack[size];
+            slots = new int[count];
+            data = new byte[count][];
+            for (int index = 0; index < count; index++) {
+                slots[index] = dataInput.readInt();
+
+                // Item bytes are read in chunks, so a corrupted length can not allocate more than the input has.
+                int length = dataInput.readInt();
+                if (length < 0) return new ItemStack[0];
+
+                data[index] = dataInput.readNBytes(length);
+                if (data[index].length != length) return new ItemStack[0];
+            }
+        }
+        catch (IOException exception) {
+            exception.printStackTrace();
+            return new ItemStack[0];
+        }
+
+        IntStream indexes = IntStream.range(0, slots.length);
+        if (parallel && slots.length >= PARALLEL_THRESHOLD) {
+            indexes = indexes.parallel();
+        }
+        indexes.forEach(index -> {
+            int slot = slots[index];
+            if (slot < 0 || slot >= items.length) return;
+
+            items[slot] = ItemNbt.decode(data[index]);
+        });
+        return items;
+    }
+}
@@ -8,16 +8,22 @@ import t.me.p1azmer.engine.NexEngine;
 import t.me.p1azmer.engine.Version;
 
 import java.io.*;
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.math.BigInteger;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
+import java.util.zip.Deflater;
+import java.util.zip.InflaterInputStream;
 
 public class ItemNbt {
 
+    /** Prefix of the Base64 encoded items. Legacy base-32 strings never contain uppercase letters or colons. */
+    public static final String PREFIX_BASE64 = "NBT:";
+
+    private static final byte TAG_COMPOUND      = 10;
+    private static final int  DEFLATE_THRESHOLD = 128;
+
     private static final Class<?> ITEM_STACK_CLASS   = Reflex.getClass("net.minecraft.world.item", "ItemStack");
     private static final Class<?> COMPOUND_TAG_CLASS = Reflex.getClass("net.minecraft.nbt", "NBTTagCompound");
     private static final Class<?> NBT_IO_CLASS       = Reflex.getClass("net.minecraft.nbt", "NBTCompressedStreamTools");
@@ -56,6 +62,17 @@ public class ItemNbt {
         }
     }
 
+    // Resolved once, all the types are erased to Object, so calls are done with invokeExact.
+    private static final MethodHandle AS_NMS_COPY    = Reflex.unreflectGeneric(CRAFT_ITEM_STACK_AS_NMS_COPY);
+    private static final MethodHandle AS_BUKKIT_COPY = Reflex.unreflectGeneric(CRAFT_ITEM_STACK_AS_BUKKIT_COPY);
+    private static final MethodHandle WRITE_NBT      = Reflex.unreflectGeneric(NBT_IO_WRITE);
+    private static final MethodHandle READ_NBT       = Reflex.unreflectGeneric(NBT_IO_READ);
+    private static final MethodHandle PARSE_OPTIONAL = Reflex.unreflectGeneric(ITEM_STACK_PARSE_OPTIONAL);
+    private static final MethodHandle SAVE_OPTIONAL  = Reflex.unreflectGeneric(ITEM_STACK_SAVE_OPTIONAL);
+    private static final MethodHandle NEW_COMPOUND   = Reflex.unreflectGeneric(NBT_TAG_COMPOUND_NEW);
+    private static final MethodHandle ITEM_OF        = Reflex.unreflectGeneric(NMS_ITEM_OF);
+    private static final MethodHandle SAVE           = Reflex.unreflectGeneric(NMS_SAVE);
+
     private static boolean useRegistry;
     private static Object registryAccess;
 
@@ -88,70 +105,172 @@ public class ItemNbt {
         }
     }
 
+    /**
+     * Encodes item to a string suitable for configs and JSON.
+     * Item NBT is written as Base64, compressed with Deflate when it's large enough to benefit from it.
+     *
+     * @param item Item to encode.
+     * @return Encoded item or null if item could not be encoded.
+     */
     @Nullable
     public static String compress(@NotNull ItemStack item) {
-        if (CRAFT_ITEM_STACK_AS_NMS_COPY == null || NBT_IO_WRITE == null) {
+        return compress(item, true);
+    }
+
+    @Nullable
+    public static String compress(@NotNull ItemStack item, boolean deflate) {
+        byte[] bytes = encode(item, deflate);
+        if (bytes == null) return null;
+
+        return PREFIX_BASE64 + Base64.getEncoder().encodeToString(bytes);
+    }
+
+    /**
+     * Decodes item from a string produced by {@link #compress(ItemStack)}.
+     * Strings in the legacy base-32 format are supported as well.
+     *
+     * @param compressed Encoded item.
+     * @return Decoded item or null if item could not be decoded.
+     */
+    @Nullable
+    public static ItemStack decompress(@NotNull String compressed) {
+        if (compressed.startsWith(PREFIX_BASE64)) {
+            try {
+                return decode(Base64.getDecoder().decode(compressed.substring(PREFIX_BASE64.length())));
+            }
+            catch (IllegalArgumentException exception) {
+                exception.printStackTrace();
+                return null;
+            }
+        }
+        return decode(new BigInteger(compressed, 32).toByteArray());
+    }
+
+    /**
+     * Encodes item to a compact binary form, suitable for BLOB columns.
+     *
+     * @param item Item to encode.
+     * @return Item NBT bytes (possibly deflated) or null if item could not be encoded.
+     */
+    @Nullable
+    public static byte[] encode(@NotNull ItemStack item) {
+        return encode(item, true);
+    }
+
+    @Nullable
+    public static byte[] encode(@NotNull ItemStack item, boolean deflate) {
+        byte[] bytes = toBytes(item);
+        if (bytes == null || !deflate || bytes.length < DEFLATE_THRESHOLD) return bytes;
+
+        byte[] deflated = deflate(bytes);
+        return deflated.length < bytes.length ? deflated : bytes;
+    }
+
+    /**
+     * Decodes item from bytes produced by {@link #encode(ItemStack)}.
+     * Both plain and deflated NBT is accepted.
+     *
+     * @param bytes Encoded item.
+     * @return Decoded item or null if item could not be decoded.
+     */
+    @Nullable
+    public static ItemStack decode(byte[] bytes) {
+        if (bytes.length == 0) return null;
+
+        // Root NBT tag is always a compound, anything else is a zlib stream.
+        InputStream inputStream = new ByteArrayInputStream(bytes);
+        if (bytes[0] != TAG_COMPOUND) {
+            inputStream = new InflaterInputStream(inputStream);
+        }
+        return fromNbt(new DataInputStream(inputStream));
+    }
+
+    /**
+     * @param item Item to write.
+     * @return Plain uncompressed NBT bytes of the item or null if item could not be written.
+     */
+    @Nullable
+    public static byte[] toBytes(@NotNull ItemStack item) {
+        if (AS_NMS_COPY == null || WRITE_NBT == null) {
             return null;
         }
 
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(256);
         DataOutputStream dataOutput = new DataOutputStream(outputStream);
         try {
             Object compoundTag;
-            Object itemStack = CRAFT_ITEM_STACK_AS_NMS_COPY.invoke(null, item);
+            Object itemStack = (Object) AS_NMS_COPY.invokeExact((Object) item);
 
             if (useRegistry) {
-                if (ITEM_STACK_SAVE_OPTIONAL == null) return null;
+                if (SAVE_OPTIONAL == null) return null;
 
-                compoundTag = ITEM_STACK_SAVE_OPTIONAL.invoke(itemStack, registryAccess);
+                compoundTag = (Object) SAVE_OPTIONAL.invokeExact(itemStack, registryAccess);
             }
             else {
-                if (NBT_TAG_COMPOUND_NEW == null || NMS_SAVE == null) return null;
+                if (NEW_COMPOUND == null || SAVE == null) return null;
 
-                compoundTag = NBT_TAG_COMPOUND_NEW.newInstance();
-                NMS_SAVE.invoke(itemStack, compoundTag);
+                // Item is saved into the passed tag, which is returned back.
+                compoundTag = (Object) SAVE.invokeExact(itemStack, (Object) NEW_COMPOUND.invokeExact());
             }
 
-            NBT_IO_WRITE.invoke(null, compoundTag, dataOutput);
+            WRITE_NBT.invokeExact(compoundTag, (Object) dataOutput);
 
-            return new BigInteger(1, outputStream.toByteArray()).toString(32);
+            return outputStream.toByteArray();
         }
-        catch (ReflectiveOperationException exception) {
-            exception.printStackTrace();
+        catch (Throwable throwable) {
+            throwable.printStackTrace();
             return null;
         }
     }
 
     @Nullable
-    public static ItemStack decompress(@NotNull String compressed) {
-        if (NBT_IO_READ == null || CRAFT_ITEM_STACK_AS_BUKKIT_COPY == null) {
+    private static ItemStack fromNbt(@NotNull DataInput dataInput) {
+        if (READ_NBT == null || AS_BUKKIT_COPY == null) {
             throw new UnsupportedOperationException("Unsupported server version!");
         }
 
-        ByteArrayInputStream inputStream = new ByteArrayInputStream(new BigInteger(compressed, 32).toByteArray());
         try {
-            Object compoundTag = NBT_IO_READ.invoke(null, new DataInputStream(inputStream));
+            Object compoundTag = (Object) READ_NBT.invokeExact((Object) dataInput);
             Object itemStack;
 
             if (useRegistry) {
-                if (ITEM_STACK_PARSE_OPTIONAL == null) return null;
+                if (PARSE_OPTIONAL == null) return null;
 
-                itemStack = ITEM_STACK_PARSE_OPTIONAL.invoke(null, registryAccess, compoundTag);
+                itemStack = (Object) PARSE_OPTIONAL.invokeExact(registryAccess, compoundTag);
             }
             else {
-                if (NMS_ITEM_OF == null) return null;
+                if (ITEM_OF == null) return null;
 
-                itemStack = NMS_ITEM_OF.invoke(null, compoundTag);
+                itemStack = (Object) ITEM_OF.invokeExact(compoundTag);
             }
 
-            return (ItemStack) CRAFT_ITEM_STACK_AS_BUKKIT_COPY.invoke(null, itemStack);
+            return (ItemStack) (Object) AS_BUKKIT_COPY.invokeExact(itemStack);
         }
-        catch (ReflectiveOperationException exception) {
-            exception.printStackTrace();
+        catch (Throwable throwable) {
+            throwable.printStackTrace();
             return null;
         }
     }
 
+    private static byte[] deflate(byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bytes.length / 2 + 16);
+            byte[] buffer = new byte[1024];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                outputStream.write(buffer, 0, length);
+            }
+            return outputStream.toByteArray();
+        }
+        finally {
+            deflater.end();
+        }
+    }
+
     @NotNull
     public static List<String> compress(@NotNull ItemStack[] items) {
         return compress(Arrays.asList(items));
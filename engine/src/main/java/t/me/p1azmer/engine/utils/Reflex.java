@@ -3,6 +3,9 @@ package t.me.p1azmer.engine.utils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.*;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -11,6 +14,8 @@ import java.util.List;
 
 public class Reflex {
 
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
   public static Class<?> getClass(@NotNull String path, @NotNull String name) {
     return getClass(path + "." + name);
   }
@@ -132,7 +137,7 @@ public class Reflex {
       return source.getDeclaredMethod(name, params);
     } catch (NoSuchMethodException exception) {
       Class<?> superClass = source.getSuperclass();
-      return superClass == null ? null : getMethod(superClass, name);
+      return superClass == null ? null : getMethod(superClass, name, params);
     }
   }
 
@@ -145,4 +150,45 @@ public class Reflex {
     }
     return null;
   }
+
+  /**
+   * Converts method to a method handle with all the parameter and return types erased to Object.
+   * Store the result in a static final field and call it with {@link MethodHandle#invokeExact(Object...)},
+   * casting all the arguments and the result to Object: this avoids access checks, varargs arrays and boxing on each call.
+   * Void methods keep their return type and are called without a cast.
+   *
+   * @param method Method to convert.
+   * @return Erased method handle or null if method is null or inaccessible.
+   */
+  @Nullable
+  public static MethodHandle unreflectGeneric(@Nullable Method method) {
+    if (method == null) return null;
+
+    try {
+      method.setAccessible(true);
+      MethodHandle handle = LOOKUP.unreflect(method);
+      MethodType type = handle.type().generic();
+      if (method.getReturnType() == void.class) {
+        type = type.changeReturnType(void.class);
+      }
+      return handle.asType(type);
+    } catch (IllegalAccessException | RuntimeException exception) {
+      exception.printStackTrace();
+    }
+    return null;
+  }
+
+  @Nullable
+  public static MethodHandle unreflectGeneric(@Nullable Constructor<?> constructor) {
+    if (constructor == null) return null;
+
+    try {
+      constructor.setAccessible(true);
+      MethodHandle handle = LOOKUP.unreflectConstructor(constructor);
+      return handle.asType(handle.type().generic());
+    } catch (IllegalAccessException | RuntimeException exception) {
+      exception.printStackTrace();
+    }
+    return null;
+  }
 }
\ No newline at end of file
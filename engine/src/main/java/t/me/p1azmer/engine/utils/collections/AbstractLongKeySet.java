@@ -0,0 +1,229 @@
+package t.me.p1azmer.engine.utils.collections;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Thread-safe open-addressing hash set of fixed-width long keys (one or two longs per key).
+ * Keys are stored inline in a single long array with linear probing, without boxing or per-entry objects.
+ * Lookups are lock-free in the common case (optimistic read), modifications take a write lock.
+ */
+abstract class AbstractLongKeySet {
+
+    private static final int MIN_SLOTS = 16;
+
+    private final int         width;
+    private final StampedLock lock;
+
+    private long[]  table;
+    private int     size;
+    private boolean hasZero;
+
+    AbstractLongKeySet(int width, int expectedSize) {
+        this.width = width;
+        this.lock = new StampedLock();
+        this.table = new long[slotsFor(expectedSize) * width];
+    }
+
+    private static int slotsFor(int size) {
+        int slots = MIN_SLOTS;
+        while (slots < size * 2) slots <<= 1;
+        return slots;
+    }
+
+    private static int hash(long high, long low) {
+        long hash = high * 0x9E3779B97F4A7C15L ^ low;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return (int) hash;
+    }
+
+    final boolean containsKey(long high, long low) {
+        long stamp = this.lock.tryOptimisticRead();
+        boolean contains = this.containsUnsafe(high, low);
+        if (!this.lock.validate(stamp)) {
+            stamp = this.lock.readLock();
+            try {
+                contains = this.containsUnsafe(high, low);
+            }
+            finally {
+                this.lock.unlockRead(stamp);
+            }
+        }
+        return contains;
+    }
+
+    private boolean containsUnsafe(long high, long low) {
+        if (high == 0L && low == 0L) return this.hasZero;
+
+        return this.find(this.table, high, low) >= 0;
+    }
+
+    final boolean addKey(long high, long low) {
+        long stamp = this.lock.writeLock();
+        try {
+            if (high == 0L && low == 0L) {
+                if (this.hasZero) return false;
+                return this.hasZero = true;
+            }
+            if (this.find(this.table, high, low) >= 0) return false;
+
+            if ((this.size + 1) * 2 > this.table.length / this.width) {
+                this.resize(this.table.length / this.width * 2);
+            }
+            this.insert(this.table, high, low);
+            this.size++;
+            return true;
+        }
+        finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    final boolean removeKey(long high, long low) {
+        long stamp = this.lock.writeLock();
+        try {
+            if (high == 0L && low == 0L) {
+                boolean had = this.hasZero;
+                this.hasZero = false;
+                return had;
+            }
+
+            long[] table = this.table;
+            int slot = this.find(table, high, low);
+            if (slot < 0) return false;
+
+            // Backward shift deletion, so probe chains stay valid without tombstones.
+            int mask = table.length / this.width - 1;
+            int hole = slot;
+            int next = (hole + 1) & mask;
+            while (!this.isEmpty(table, next)) {
+                int ideal = hash(this.high(table, next), this.low(table, next)) & mask;
+                boolean movable = next > hole ? (ideal <= hole || ideal > next) : (ideal <= hole && ideal > next);
+                if (movable) {
+                    this.copy(table, next, hole);
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            this.set(table, hole, 0L, 0L);
+            this.size--;
+            return true;
+        }
+        finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    public void clear() {
+        long stamp = this.lock.writeLock();
+        try {
+            Arrays.fill(this.table, 0L);
+            this.size = 0;
+            this.hasZero = false;
+        }
+        finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = this.lock.readLock();
+        try {
+            return this.size + (this.hasZero ? 1 : 0);
+        }
+        finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    public boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    /**
+     * Passes all the stored keys to the consumer under the read lock.
+     */
+    final void forEachKey(KeyConsumer consumer) {
+        long stamp = this.lock.readLock();
+        try {
+            if (this.hasZero) consumer.accept(0L, 0L);
+
+            long[] table = this.table;
+            int slots = table.length / this.width;
+            for (int slot = 0; slot < slots; slot++) {
+                if (!this.isEmpty(table, slot)) {
+                    consumer.accept(this.high(table, slot), this.low(table, slot));
+                }
+            }
+        }
+        finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    private int find(long[] table, long high, long low) {
+        int slots = table.length / this.width;
+        int mask = slots - 1;
+        int slot = hash(high, low) & mask;
+        for (int probe = 0; probe < slots; probe++) {
+            if (this.isEmpty(table, slot)) return -1;
+            if (this.high(table, slot) == high && this.low(table, slot) == low) return slot;
+
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void insert(long[] table, long high, long low) {
+        int mask = table.length / this.width - 1;
+        int slot = hash(high, low) & mask;
+        while (!this.isEmpty(table, slot)) {
+            slot = (slot + 1) & mask;
+        }
+        this.set(table, slot, high, low);
+    }
+
+    private void resize(int slots) {
+        long[] oldTable = this.table;
+        long[] newTable = new long[slots * this.width];
+        int oldSlots = oldTable.length / this.width;
+        for (int slot = 0; slot < oldSlots; slot++) {
+            if (!this.isEmpty(oldTable, slot)) {
+                this.insert(newTable, this.high(oldTable, slot), this.low(oldTable, slot));
+            }
+        }
+        this.table = newTable;
+    }
+
+    private boolean isEmpty(long[] table, int slot) {
+        return this.high(table, slot) == 0L && this.low(table, slot) == 0L;
+    }
+
+    private long high(long[] table, int slot) {
+        return this.width == 2 ? table[slot * 2] : 0L;
+    }
+
+    private long low(long[] table, int slot) {
+        return this.width == 2 ? table[slot * 2 + 1] : table[slot];
+    }
+
+    private void set(long[] table, int slot, long high, long low) {
+        if (this.width == 2) {
+            table[slot * 2] = high;
+            table[slot * 2 + 1] = low;
+        }
+        else table[slot] = low;
+    }
+
+    private void copy(long[] table, int from, int to) {
+        this.set(table, to, this.high(table, from), this.low(table, from));
+    }
+
+    @FunctionalInterface
+    interface KeyConsumer {
+
+        void accept(long high, long low);
+    }
+}
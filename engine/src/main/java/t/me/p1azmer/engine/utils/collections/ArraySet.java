@@ -0,0 +1,136 @@
+package t.me.p1azmer.engine.utils.collections;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Array-backed set for a small amount of elements.
+ * Lookups are linear, but the set does not allocate anything on add or clear once its array is grown,
+ * so it can be reused many times without garbage. Not thread-safe.
+ */
+public class ArraySet<E> extends AbstractSet<E> {
+
+    private Object[] elements;
+    private int      size;
+    private int      modCount;
+
+    public ArraySet() {
+        this(16);
+    }
+
+    public ArraySet(int capacity) {
+        this.elements = new Object[Math.max(1, capacity)];
+    }
+
+    private int indexOf(Object element) {
+        for (int index = 0; index < this.size; index++) {
+            if (this.elements[index].equals(element)) return index;
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean add(@NotNull E element) {
+        if (this.indexOf(element) >= 0) return false;
+
+        if (this.size == this.elements.length) {
+            this.elements = Arrays.copyOf(this.elements, this.size * 2);
+        }
+        this.elements[this.size++] = element;
+        this.modCount++;
+        return true;
+    }
+
+    @Override
+    public boolean addAll(@NotNull Collection<? extends E> collection) {
+        boolean changed = false;
+        for (E element : collection) {
+            changed |= this.add(element);
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean contains(Object element) {
+        return element != null && this.indexOf(element) >= 0;
+    }
+
+    @Override
+    public boolean remove(Object element) {
+        int index = element == null ? -1 : this.indexOf(element);
+        if (index < 0) return false;
+
+        this.removeAt(index);
+        return true;
+    }
+
+    private void removeAt(int index) {
+        // Order is not preserved, the last element takes the place of the removed one.
+        this.elements[index] = this.elements[--this.size];
+        this.elements[this.size] = null;
+        this.modCount++;
+    }
+
+    @Override
+    public void clear() {
+        if (this.size == 0) return;
+
+        Arrays.fill(this.elements, 0, this.size, null);
+        this.size = 0;
+        this.modCount++;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    @NotNull
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+
+            private int cursor;
+            private int last = -1;
+            private int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return this.cursor < size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (this.expectedModCount != modCount) throw new ConcurrentModificationException();
+                if (this.cursor >= size) throw new NoSuchElementException();
+
+                this.last = this.cursor++;
+                return (E) elements[this.last];
+            }
+
+            @Override
+            public void remove() {
+                if (this.last < 0) throw new IllegalStateException();
+                if (this.expectedModCount != modCount) throw new ConcurrentModificationException();
+
+                removeAt(this.last);
+                // The last element was moved to the removed index, so visit it next.
+                this.cursor = this.last;
+                this.last = -1;
+                this.expectedModCount = modCount;
+            }
+        };
+    }
+}
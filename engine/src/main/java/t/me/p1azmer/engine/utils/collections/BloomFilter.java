@@ -0,0 +1,110 @@
+package t.me.p1azmer.engine.utils.collections;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter for UUIDs and case-insensitive names.
+ * {@link #mightContain} never returns false for the added elements, and returns true for absent ones
+ * with a probability close to the configured false positive rate, while the size of the filter stays within
+ * the expected amount of elements. Elements can not be removed.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long            bitSize;
+    private final int             hashes;
+    private final long            capacity;
+    private final AtomicLong      insertions;
+
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long amount = Math.max(1L, expectedInsertions);
+        double rate = Math.min(0.5D, Math.max(1E-9D, falsePositiveRate));
+
+        long bitSize = (long) Math.ceil(-amount * Math.log(rate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1L, (bitSize + 63) / 64));
+
+        this.bits = new AtomicLongArray(words);
+        this.bitSize = words * 64L;
+        this.hashes = Math.max(1, (int) Math.round((double) this.bitSize / amount * Math.log(2)));
+        this.capacity = amount;
+        this.insertions = new AtomicLong();
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    public void put(@NotNull UUID uuid) {
+        long hash = mix(uuid.getMostSignificantBits() ^ mix(uuid.getLeastSignificantBits()));
+        this.put(hash, mix(hash + 0x9E3779B97F4A7C15L));
+    }
+
+    public boolean mightContain(@NotNull UUID uuid) {
+        long hash = mix(uuid.getMostSignificantBits() ^ mix(uuid.getLeastSignificantBits()));
+        return this.mightContain(hash, mix(hash + 0x9E3779B97F4A7C15L));
+    }
+
+    public void put(@NotNull String name) {
+        long hash = HashedNameSet.hash(name);
+        this.put(hash, mix(hash + 0x9E3779B97F4A7C15L));
+    }
+
+    public boolean mightContain(@NotNull String name) {
+        long hash = HashedNameSet.hash(name);
+        return this.mightContain(hash, mix(hash + 0x9E3779B97F4A7C15L));
+    }
+
+    private void put(long hash1, long hash2) {
+        long combined = hash1;
+        for (int index = 0; index < this.hashes; index++) {
+            long bit = (combined & Long.MAX_VALUE) % this.bitSize;
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+
+            long current = this.bits.get(word);
+            while ((current & mask) == 0L && !this.bits.compareAndSet(word, current, current | mask)) {
+                current = this.bits.get(word);
+            }
+            combined += hash2;
+        }
+        this.insertions.incrementAndGet();
+    }
+
+    private boolean mightContain(long hash1, long hash2) {
+        long combined = hash1;
+        for (int index = 0; index < this.hashes; index++) {
+            long bit = (combined & Long.MAX_VALUE) % this.bitSize;
+            if ((this.bits.get((int) (bit >>> 6)) & (1L << bit)) == 0L) return false;
+
+            combined += hash2;
+        }
+        return true;
+    }
+
+    /**
+     * @return True if filter contains more elements than it was built for, so its false positive rate is higher than expected.
+     */
+    public boolean isSaturated() {
+        return this.insertions.get() > this.capacity;
+    }
+
+    public long getInsertions() {
+        return this.insertions.get();
+    }
+
+    /**
+     * @return Size of the filter in bytes.
+     */
+    public long getMemorySize() {
+        return this.bitSize / 8L;
+    }
+}
@@ -0,0 +1,46 @@
+package t.me.p1azmer.engine.utils.collections;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Thread-safe compact set of case-insensitive names.
+ * Only 64-bit hashes of the names are stored, so the names can not be retrieved back,
+ * and there is a negligible chance of false positives for {@link #contains(String)}.
+ */
+public class HashedNameSet extends AbstractLongKeySet {
+
+    public HashedNameSet() {
+        this(16);
+    }
+
+    public HashedNameSet(int expectedSize) {
+        super(1, expectedSize);
+    }
+
+    /**
+     * Case-insensitive FNV-1a hash of the name with the final avalanche mix.
+     */
+    public static long hash(@NotNull String name) {
+        long hash = 0xCBF29CE484222325L;
+        for (int index = 0; index < name.length(); index++) {
+            hash ^= Character.toLowerCase(name.charAt(index));
+            hash *= 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    public boolean add(@NotNull String name) {
+        return this.addKey(0L, hash(name));
+    }
+
+    public boolean remove(@NotNull String name) {
+        return this.removeKey(0L, hash(name));
+    }
+
+    public boolean contains(@NotNull String name) {
+        return this.containsKey(0L, hash(name));
+    }
+}
@@ -0,0 +1,91 @@
+package t.me.p1azmer.engine.utils.collections;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel to expire elements by their deadlines.
+ * Scheduling is O(1), and advancing the wheel only visits buckets of the passed ticks,
+ * so every element is checked once per wheel revolution at most.
+ * <br>
+ * Elements are never removed from the wheel directly: consumer is expected to check
+ * if element is still expired when it's fired.
+ */
+public class TimingWheel<T> {
+
+    private final long                   tickMillis;
+    private final ArrayDeque<Entry<T>>[] buckets;
+
+    private long lastTick;
+    private int  size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, int bucketsAmount) {
+        this.tickMillis = Math.max(1L, tickMillis);
+        this.buckets = new ArrayDeque[Math.max(1, bucketsAmount)];
+        for (int index = 0; index < this.buckets.length; index++) {
+            this.buckets[index] = new ArrayDeque<>();
+        }
+        this.lastTick = System.currentTimeMillis() / this.tickMillis;
+    }
+
+    public synchronized void schedule(@NotNull T value, long deadlineMillis) {
+        long tick = Math.max(deadlineMillis / this.tickMillis, this.lastTick + 1);
+        this.buckets[(int) (tick % this.buckets.length)].add(new Entry<>(value, tick));
+        this.size++;
+    }
+
+    /**
+     * Moves the wheel up to the specified time and passes all the elements with reached deadlines to the consumer.
+     * Consumer is called outside of the wheel lock.
+     *
+     * @param nowMillis Current time.
+     * @param consumer  Consumer for the expired elements.
+     * @return Amount of the fired elements.
+     */
+    public int advance(long nowMillis, @NotNull Consumer<T> consumer) {
+        List<T> expired = new ArrayList<>();
+
+        synchronized (this) {
+            long nowTick = nowMillis / this.tickMillis;
+            // No need to visit the same bucket twice in a single advance.
+            long fromTick = Math.max(this.lastTick + 1, nowTick - this.buckets.length + 1);
+
+            for (long tick = fromTick; tick <= nowTick; tick++) {
+                Iterator<Entry<T>> iterator = this.buckets[(int) (tick % this.buckets.length)].iterator();
+                while (iterator.hasNext()) {
+                    Entry<T> entry = iterator.next();
+                    if (entry.tick() > nowTick) continue;
+
+                    iterator.remove();
+                    expired.add(entry.value());
+                }
+            }
+            this.lastTick = Math.max(this.lastTick, nowTick);
+            this.size -= expired.size();
+        }
+
+        expired.forEach(consumer);
+        return expired.size();
+    }
+
+    public synchronized int size() {
+        return this.size;
+    }
+
+    public synchronized void clear() {
+        for (ArrayDeque<Entry<T>> bucket : this.buckets) {
+            bucket.clear();
+        }
+        this.size = 0;
+    }
+
+    private record Entry<T>(@NotNull T value, long tick) {
+
+    }
+}
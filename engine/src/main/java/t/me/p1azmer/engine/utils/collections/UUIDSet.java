@@ -0,0 +1,36 @@
+package t.me.p1azmer.engine.utils.collections;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Thread-safe compact set of UUIDs, stored as pairs of longs.
+ */
+public class UUIDSet extends AbstractLongKeySet {
+
+    public UUIDSet() {
+        this(16);
+    }
+
+    public UUIDSet(int expectedSize) {
+        super(2, expectedSize);
+    }
+
+    public boolean add(@NotNull UUID uuid) {
+        return this.addKey(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    public boolean remove(@NotNull UUID uuid) {
+        return this.removeKey(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    public boolean contains(@NotNull UUID uuid) {
+        return this.containsKey(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    public void forEach(@NotNull Consumer<UUID> consumer) {
+        this.forEachKey((high, low) -> consumer.accept(new UUID(high, low)));
+    }
+}